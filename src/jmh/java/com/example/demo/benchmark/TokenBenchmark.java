@@ -0,0 +1,100 @@
+package com.example.demo.benchmark;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.domain.Role;
+import com.example.demo.security.AccessTokenDenylist;
+import com.example.demo.security.AccessTokenVerifier;
+import com.example.demo.security.AuthMetrics;
+import com.example.demo.security.JwtProperties;
+import com.example.demo.security.RoleCatalog;
+import com.example.demo.security.TokenService;
+import com.example.demo.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Token issuance as done by CustomAuthenticationFilter.successfulAuthentication and verification plus authority
+ * building as done by CustomerAuthorizationFilter, without a Spring context. Every benchmark runs with the roles
+ * written as an array and as a bitmask, the size of the resulting Authorization header is printed during setup.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenBenchmark {
+
+    private static final String ISSUER = "http://localhost:8080/api/login";
+
+    private TokenService tokenService;
+    private VerifiedTokenCache verifiedTokenCache;
+    private AccessTokenVerifier accessTokenVerifier;
+    private RoleCatalog roleCatalog;
+    private Collection<GrantedAuthority> authorities;
+    private String accessToken;
+
+    @Param({"ARRAY", "BITMASK"})
+    public JwtProperties.RolesClaimFormat rolesClaimFormat;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.getKeys().put(TokenService.DEFAULT_KEY_ID, "secret");
+        properties.setRolesClaimFormat(rolesClaimFormat);
+        /* The roles seeded by DemoApplication, registered directly since there is no repository here. */
+        roleCatalog = new RoleCatalog(null);
+        roleCatalog.register(new Role(1L, "ROLE_USER", 0));
+        roleCatalog.register(new Role(2L, "ROLE_MANAGER", 1));
+        roleCatalog.register(new Role(3L, "ROLE_ADMIN", 2));
+        roleCatalog.register(new Role(4L, "ROLE_SUPER_ADMIN", 3));
+        verifiedTokenCache = new VerifiedTokenCache(10_000);
+        tokenService = new TokenService(properties, roleCatalog, verifiedTokenCache);
+        AccessTokenDenylist accessTokenDenylist = new AccessTokenDenylist(60, 10_000, 0.001);
+        long expiresAt = System.currentTimeMillis() + TokenService.ACCESS_TOKEN_VALIDITY_MILLIS;
+        for (int i = 0; i < 1_000; i++) {
+            accessTokenDenylist.revokeToken(UUID.randomUUID().toString(), expiresAt);
+        }
+        /* Other tokens revoked in the same bucket, so the check runs against a populated Bloom filter. */
+        accessTokenVerifier = new AccessTokenVerifier(tokenService, verifiedTokenCache, accessTokenDenylist, new AuthMetrics(new SimpleMeterRegistry()));
+        authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN"));
+        accessToken = issueAccessToken();
+        System.out.println("Authorization header with " + rolesClaimFormat + " roles: " + ("Bearer " + accessToken).length() + " bytes");
+    }
+
+    @Benchmark
+    public String[] issueTokens() {
+        return new String[]{issueAccessToken(), tokenService.createRefreshToken("john", ISSUER, UUID.randomUUID().toString())};
+    }
+
+    @Benchmark
+    public UsernamePasswordAuthenticationToken verifyAndBuildAuthorities() {
+        return verifyAndBuild(accessToken);
+    }
+
+    @Benchmark
+    public UsernamePasswordAuthenticationToken verifyThroughCache() {
+        return accessTokenVerifier.verify(accessToken).getAuthentication();
+    }
+
+    private String issueAccessToken() {
+        return tokenService.createAccessToken("john", ISSUER, authorities.stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()));
+    }
+
+    private UsernamePasswordAuthenticationToken verifyAndBuild(String token) {
+        DecodedJWT decodedJWT = tokenService.verify(token);
+        return new UsernamePasswordAuthenticationToken(decodedJWT.getSubject(), null, tokenService.authorities(decodedJWT));
+    }
+}
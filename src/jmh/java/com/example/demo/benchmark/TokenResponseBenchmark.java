@@ -0,0 +1,60 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.security.JwtProperties;
+import com.example.demo.security.RoleCatalog;
+import com.example.demo.security.TokenResponseWriter;
+import com.example.demo.security.TokenService;
+import com.example.demo.security.VerifiedTokenCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TokenResponseWriter against the HashMap and per-call ObjectMapper it replaced. That both produce the same bytes is
+ * checked by TokenResponseWriterTest.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenResponseBenchmark {
+
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.getKeys().put(TokenService.DEFAULT_KEY_ID, "secret");
+        TokenService tokenService = new TokenService(properties, new RoleCatalog(null), new VerifiedTokenCache(1));
+        accessToken = tokenService.createAccessToken("john", "http://localhost:8080/api/login", List.of("ROLE_USER"));
+        refreshToken = tokenService.createRefreshToken("john", "http://localhost:8080/api/login", UUID.randomUUID().toString());
+    }
+
+    @Benchmark
+    public byte[] objectMapperTokens() throws IOException {
+        Map<String, String> tokens = new HashMap<>();
+        tokens.put("access_token", accessToken);
+        tokens.put("refresh_token", refreshToken);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ObjectMapper().writeValue(out, tokens);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] tokenResponseWriterTokens() {
+        return TokenResponseWriter.tokensBody(accessToken, refreshToken);
+    }
+}
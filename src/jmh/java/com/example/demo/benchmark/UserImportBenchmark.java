@@ -0,0 +1,79 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.domain.User;
+import com.example.demo.service.UserImportRow;
+import com.example.demo.service.UserImportService;
+import com.example.demo.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of the bulk import against the saveUser and addRoleToUser loop it replaces. The BCrypt strength is
+ * a parameter: at 4 the database writes dominate, at 10 the password hashing does.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(UserImportBenchmark.ROWS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class UserImportBenchmark {
+
+    static final int ROWS = 500;
+
+    @Param({"4", "10"})
+    public int bcryptStrength;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserImportService userImportService;
+    private long batch;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start("--security.bcrypt.min-strength=" + bcryptStrength, "--security.bcrypt.max-strength=" + bcryptStrength);
+        userService = context.getBean(UserService.class);
+        userImportService = context.getBean(UserImportService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long saveUserLoop() {
+        long current = batch++;
+        for (int i = 0; i < ROWS; i++) {
+            String username = "loop-" + current + "-" + i;
+            userService.saveUser(new User(null, username, username, "1234", new HashSet<>(), null));
+            userService.addRoleToUser(username, "ROLE_USER");
+        }
+        return current;
+    }
+
+    @Benchmark
+    public long importUsers() {
+        long current = batch++;
+        List<UserImportRow> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            UserImportRow row = new UserImportRow();
+            row.setLine(i + 1);
+            row.setName("import-" + current + "-" + i);
+            row.setUsername(row.getName());
+            row.setPassword("1234");
+            row.getRoles().add("ROLE_USER");
+            rows.add(row);
+        }
+        return userImportService.importUsers(rows.iterator()).getImported();
+    }
+}
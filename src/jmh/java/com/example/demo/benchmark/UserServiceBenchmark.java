@@ -0,0 +1,79 @@
+package com.example.demo.benchmark;
+
+import com.example.demo.api.UserResource;
+import com.example.demo.security.RefreshTokenStore;
+import com.example.demo.security.TokenService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+/**
+ * UserServiceImpl.loadUserByUsername and the UserResource.refreshToken flow against an in-memory database.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final String REFRESH_TOKEN_FIELD = "\"refresh_token\":\"";
+
+    private ConfigurableApplicationContext context;
+    private UserDetailsService userDetailsService;
+    private UserResource userResource;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        userDetailsService = context.getBean(UserDetailsService.class);
+        userResource = context.getBean(UserResource.class);
+        String tokenId = context.getBean(RefreshTokenStore.class).issue("john");
+        refreshToken = context.getBean(TokenService.class).createRefreshToken("john", "http://localhost:8080/api/login", tokenId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername("john");
+    }
+
+    @Benchmark
+    public Object loadUnknownUsername() {
+        try {
+            return userDetailsService.loadUserByUsername("credential-stuffing-guess");
+        } catch (UsernameNotFoundException exception) {
+            return exception;
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse refreshToken() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/token/refresh");
+        request.addHeader(AUTHORIZATION, "Bearer " + refreshToken);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        userResource.refreshToken(request, response);
+        /* Refresh tokens are single use, the next invocation presents the one that was just issued. */
+        String body = response.getContentAsString();
+        int start = body.indexOf(REFRESH_TOKEN_FIELD) + REFRESH_TOKEN_FIELD.length();
+        refreshToken = body.substring(start, body.indexOf('"', start));
+        return response;
+    }
+}
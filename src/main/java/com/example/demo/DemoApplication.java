@@ -7,9 +7,9 @@ import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 
 /**
  * @developed-by : mGunawardhana
@@ -17,18 +17,13 @@ import java.util.ArrayList;
  */
 
 @SpringBootApplication
+@EnableScheduling
 public class DemoApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(DemoApplication.class, args);
     }
 
-
-    @Bean
-    public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
     @Bean
     CommandLineRunner run(UserService userService) {
         return args -> {
@@ -37,10 +32,10 @@ public class DemoApplication {
             userService.saveRole(new Role(null, "ROLE_ADMIN"));
             userService.saveRole(new Role(null, "ROLE_SUPER_ADMIN"));
 
-            userService.saveUser(new User(null, "John Travolta", "john", "1234", new ArrayList<>()));
-            userService.saveUser(new User(null, "Will Smith", "will", "1234", new ArrayList<>()));
-            userService.saveUser(new User(null, "Jim Carry", "jim", "1234", new ArrayList<>()));
-            userService.saveUser(new User(null, "Arnold Schwarzenegger", "arnold", "1234", new ArrayList<>()));
+            userService.saveUser(new User(null, "John Travolta", "john", "1234", new HashSet<>(), null));
+            userService.saveUser(new User(null, "Will Smith", "will", "1234", new HashSet<>(), null));
+            userService.saveUser(new User(null, "Jim Carry", "jim", "1234", new HashSet<>(), null));
+            userService.saveUser(new User(null, "Arnold Schwarzenegger", "arnold", "1234", new HashSet<>(), null));
 
             userService.addRoleToUser("john", "ROLE_USER");
             userService.addRoleToUser("will", "ROLE_MANAGER");
@@ -0,0 +1,38 @@
+package com.example.demo.api;
+
+import com.example.demo.security.JsonWebKeySet;
+import com.example.demo.security.JwtProperties;
+import com.example.demo.security.TokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksResource {
+
+    private final TokenService tokenService;
+    private final JwtProperties jwtProperties;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getJsonWebKeySet() {
+        JsonWebKeySet jsonWebKeySet = tokenService.getJsonWebKeySet();
+        return ResponseEntity.ok()
+                .eTag(jsonWebKeySet.getEtag())
+                .cacheControl(CacheControl.maxAge(jwtProperties.getJwksMaxAgeSeconds(), TimeUnit.SECONDS).cachePublic())
+                .body(jsonWebKeySet.getJson());
+        /*
+         * The document is written as the bytes TokenService serialized when the keys last changed. Spring MVC compares
+         * the ETag with If-None-Match and answers 304 without a body when the client already has this version.
+         * */
+    }
+}
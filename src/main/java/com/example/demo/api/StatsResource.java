@@ -0,0 +1,112 @@
+package com.example.demo.api;
+
+import com.example.demo.security.AccessTokenDenylist;
+import com.example.demo.security.CalibratedBCryptPasswordEncoder;
+import com.example.demo.security.LoginExecutor;
+import com.example.demo.security.LoginRateLimiter;
+import com.example.demo.security.RefreshTokenStore;
+import com.example.demo.security.VerifiedTokenCache;
+import com.example.demo.service.impl.UserDetailsCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class StatsResource {
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserDetailsCache userDetailsCache;
+    private final CalibratedBCryptPasswordEncoder calibratedBCryptPasswordEncoder;
+    private final LoginExecutor loginExecutor;
+    private final LoginRateLimiter loginRateLimiter;
+    private final RefreshTokenStore refreshTokenStore;
+    private final AccessTokenDenylist accessTokenDenylist;
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Map<String, Number>>> getCacheStats() {
+        Map<String, Map<String, Number>> stats = new LinkedHashMap<>();
+        stats.put("verifiedTokens", toMap(verifiedTokenCache.stats()));
+        stats.put("userDetails", toMap(userDetailsCache.stats()));
+        stats.get("userDetails").put("size", userDetailsCache.size());
+        return ResponseEntity.ok().body(stats);
+    }
+
+    @GetMapping("/password-encoder/stats")
+    public ResponseEntity<Map<String, Number>> getPasswordEncoderStats() {
+        long matches = calibratedBCryptPasswordEncoder.getMatchCount();
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("strength", calibratedBCryptPasswordEncoder.getStrength());
+        stats.put("matches", matches);
+        stats.put("averageMatchMillis", matches == 0 ? 0 : calibratedBCryptPasswordEncoder.getMatchNanos() / matches / 1_000_000.0);
+        stats.put("maxMatchMillis", calibratedBCryptPasswordEncoder.getMaxMatchNanos() / 1_000_000.0);
+        return ResponseEntity.ok().body(stats);
+    }
+
+    @GetMapping("/login-executor/stats")
+    public ResponseEntity<Map<String, Number>> getLoginExecutorStats() {
+        long executed = loginExecutor.getExecutedCount();
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", loginExecutor.getQueueDepth());
+        stats.put("active", loginExecutor.getActiveCount());
+        stats.put("executed", executed);
+        stats.put("rejected", loginExecutor.getRejectedCount());
+        stats.put("expired", loginExecutor.getExpiredCount());
+        stats.put("averageQueueWaitMillis", executed == 0 ? 0 : loginExecutor.getQueueWaitNanos() / executed / 1_000_000.0);
+        stats.put("maxQueueWaitMillis", loginExecutor.getMaxQueueWaitNanos() / 1_000_000.0);
+        return ResponseEntity.ok().body(stats);
+    }
+
+    @GetMapping("/login-rate-limit/stats")
+    public ResponseEntity<Map<String, Number>> getLoginRateLimitStats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("allowed", loginRateLimiter.getAllowedCount());
+        stats.put("rejectedByUsername", loginRateLimiter.getRejectedByUsernameCount());
+        stats.put("rejectedByIp", loginRateLimiter.getRejectedByIpCount());
+        stats.put("trackedKeys", loginRateLimiter.getTrackedKeys());
+        return ResponseEntity.ok().body(stats);
+    }
+
+    @GetMapping("/refresh-tokens/stats")
+    public ResponseEntity<Map<String, Number>> getRefreshTokenStats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("issued", refreshTokenStore.getIssuedCount());
+        stats.put("rotated", refreshTokenStore.getRotatedCount());
+        stats.put("reuseDetected", refreshTokenStore.getReuseDetectedCount());
+        stats.put("indexMisses", refreshTokenStore.getIndexMissCount());
+        stats.put("indexedTokens", refreshTokenStore.getIndexedTokens());
+        stats.put("pendingWrites", refreshTokenStore.getPendingWrites());
+        stats.put("droppedWrites", refreshTokenStore.getDroppedWriteCount());
+        return ResponseEntity.ok().body(stats);
+    }
+
+    @GetMapping("/denylist/stats")
+    public ResponseEntity<Map<String, Number>> getDenylistStats() {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("revokedTokens", accessTokenDenylist.getRevokedTokenCount());
+        stats.put("revokedSubjects", accessTokenDenylist.getRevokedSubjectCount());
+        stats.put("rejected", accessTokenDenylist.getRejectedCount());
+        stats.put("bloomFalsePositives", accessTokenDenylist.getBloomFalsePositiveCount());
+        return ResponseEntity.ok().body(stats);
+    }
+
+    private static Map<String, Number> toMap(CacheStats cacheStats) {
+        Map<String, Number> values = new LinkedHashMap<>();
+        values.put("hits", cacheStats.hitCount());
+        values.put("misses", cacheStats.missCount());
+        values.put("hitRate", cacheStats.hitRate());
+        values.put("evictions", cacheStats.evictionCount());
+        return values;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo.api;
+
+import com.example.demo.security.TokenIntrospection;
+import com.example.demo.security.TokenIntrospector;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@RestController
+@RequestMapping("/api/token")
+@RequiredArgsConstructor
+public class TokenIntrospectionResource {
+
+    private final TokenIntrospector tokenIntrospector;
+    private final ObjectMapper objectMapper;
+
+    @PostMapping(value = "/introspect", produces = APPLICATION_NDJSON_VALUE)
+    public void introspect(@RequestBody TokenIntrospectionForm form, HttpServletResponse response) throws IOException, InterruptedException {
+        if (form.getTokens() == null) {
+            response.sendError(BAD_REQUEST.value(), "tokens must be a list of tokens");
+            return;
+        }
+        /*
+         * A body without "tokens" gets the empty default list and an empty answer, an explicit null must not reach
+         * the introspector.
+         * */
+        if (form.getTokens().size() > tokenIntrospector.getMaxBatchSize()) {
+            response.sendError(BAD_REQUEST.value(), "At most " + tokenIntrospector.getMaxBatchSize() + " tokens can be introspected at once");
+            return;
+        }
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writerFor(TokenIntrospection.class);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            tokenIntrospector.introspect(form.getTokens(), introspection -> {
+                try {
+                    writer.writeValue(generator, introspection);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+            generator.writeRaw('\n');
+        }
+        /*
+         * One line per token (NDJSON) is written and flushed as soon as that token is verified, so a gateway can act
+         * on the results it already has while the rest of the batch is still being checked. "index" ties a line back
+         * to its token.
+         * */
+    }
+}
+
+@Data
+class TokenIntrospectionForm {
+    private List<String> tokens = new ArrayList<>();
+}
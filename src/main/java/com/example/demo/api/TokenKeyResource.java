@@ -0,0 +1,99 @@
+package com.example.demo.api;
+
+import com.example.demo.security.JwtProperties;
+import com.example.demo.security.TokenService;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@RestController
+@RequestMapping("/api/admin/keys")
+@RequiredArgsConstructor
+public class TokenKeyResource {
+
+    private final TokenService tokenService;
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getKeys() {
+        Map<String, Object> keys = new HashMap<>();
+        keys.put("active", tokenService.getActiveKeyId());
+        keys.put("keys", Set.copyOf(tokenService.getKeyIds()));
+        return ResponseEntity.ok().body(keys);
+    }
+
+    @PostMapping
+    public ResponseEntity<?> addKey(@RequestBody SigningKeyForm form) {
+        if (form.isActivate() && tokenService.getSigningAlgorithm() != JwtProperties.SigningAlgorithm.HS256) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Only " + tokenService.getSigningAlgorithm() + " keys can be activated");
+        }
+        if (!tokenService.addKey(form.getKeyId(), form.getSecret())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Key id already in use: " + form.getKeyId());
+        }
+        return form.isActivate() ? activateKey(form.getKeyId()) : ResponseEntity.ok().build();
+    }
+
+    /*
+     * Generates an RS256 or ES256 key pair, its public key is published at /.well-known/jwks.json right away. The
+     * private key never leaves this instance, so this is for single instance setups and tests, a cluster configures
+     * its key pairs under jwt.key-pairs instead.
+     * */
+    @PostMapping("/generate")
+    public ResponseEntity<?> generateKeyPair(@RequestBody KeyPairForm form) {
+        if (form.isActivate() && tokenService.getSigningAlgorithm() != form.getAlgorithm()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Only " + tokenService.getSigningAlgorithm() + " keys can be activated");
+        }
+        if (!tokenService.generateKeyPair(form.getKeyId(), form.getAlgorithm())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Key id already in use: " + form.getKeyId());
+        }
+        return form.isActivate() ? activateKey(form.getKeyId()) : ResponseEntity.ok().build();
+        /*
+         * The algorithm is checked before anything is added, so a request that cannot be carried out leaves no
+         * key behind.
+         * */
+    }
+
+    @PostMapping("/{keyId}/activate")
+    public ResponseEntity<?> activateKey(@PathVariable String keyId) {
+        return toResponse(keyId, tokenService.activateKey(keyId));
+    }
+
+    @DeleteMapping("/{keyId}")
+    public ResponseEntity<?> removeKey(@PathVariable String keyId) {
+        return toResponse(keyId, tokenService.removeKey(keyId));
+    }
+
+    private static ResponseEntity<?> toResponse(String keyId, TokenService.KeyChange change) {
+        switch (change) {
+            case DONE:
+                return ResponseEntity.ok().build();
+            case UNKNOWN_KEY:
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown key id: " + keyId);
+            default:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("Key " + keyId + ": " + change.getMessage());
+        }
+    }
+}
+
+@Data
+class SigningKeyForm {
+    private String keyId;
+    private String secret;
+    private boolean activate;
+}
+
+@Data
+class KeyPairForm {
+    private String keyId;
+    private JwtProperties.SigningAlgorithm algorithm = JwtProperties.SigningAlgorithm.RS256;
+    private boolean activate;
+}
@@ -0,0 +1,60 @@
+package com.example.demo.api;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.security.AccessTokenDenylist;
+import com.example.demo.security.RefreshTokenStore;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@RestController
+@RequestMapping("/api/admin/tokens")
+@RequiredArgsConstructor
+public class TokenRevocationResource {
+
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final RefreshTokenStore refreshTokenStore;
+
+    @PostMapping("/revoke")
+    public ResponseEntity<?> revokeToken(@RequestBody TokenRevocationForm form) {
+        if (form.getToken() != null) {
+            DecodedJWT decodedJWT = JWT.decode(form.getToken());
+            if (decodedJWT.getId() == null) {
+                throw new IllegalArgumentException("The token has no id, revoke its user instead");
+            }
+            accessTokenDenylist.revokeToken(decodedJWT.getId(), decodedJWT.getExpiresAt() != null ? decodedJWT.getExpiresAt().getTime() : null);
+        } else if (form.getTokenId() != null) {
+            accessTokenDenylist.revokeToken(form.getTokenId(), null);
+        } else {
+            throw new IllegalArgumentException("Either token or tokenId is required");
+        }
+        return ResponseEntity.ok().build();
+        /*
+         * A full token is only decoded, not verified, to find the bucket of its "exp", only an admin can reach this
+         * endpoint and revoking a forged token does no harm.
+         * */
+    }
+
+    @PostMapping("/revoke/user/{username}")
+    public ResponseEntity<?> revokeUser(@PathVariable String username) {
+        accessTokenDenylist.revokeSubject(username);
+        refreshTokenStore.revokeUser(username);
+        return ResponseEntity.ok().build();
+        /*
+         * Revoking the refresh tokens as well keeps the user from simply refreshing a new access token, they have to
+         * log in again.
+         * */
+    }
+}
+
+@Data
+class TokenRevocationForm {
+    private String token;
+    private String tokenId;
+}
@@ -0,0 +1,208 @@
+package com.example.demo.api;
+
+import com.example.demo.service.UserImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+abstract class UserImportReader implements Iterator<UserImportRow> {
+
+    private final BufferedReader reader;
+    private long lineNumber;
+    private UserImportRow next;
+
+    private UserImportReader(InputStream body) {
+        this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    }
+
+    /*
+     * One JSON object per line: {"name":"...","username":"...","password":"...","roles":["ROLE_USER"]}. A line
+     * holding only null is reported as a failed row, it must not be mistaken for a line without a user.
+     * */
+    static UserImportReader ndjson(InputStream body, ObjectReader rowReader) {
+        return new UserImportReader(body) {
+            @Override
+            UserImportRow parse(String line) {
+                try {
+                    UserImportRow row = rowReader.readValue(line);
+                    return row != null ? row : failed("expected a JSON object, got null");
+                } catch (JsonProcessingException exception) {
+                    return failed("malformed JSON: " + exception.getOriginalMessage());
+                }
+            }
+        };
+    }
+
+    /*
+     * A header line naming the columns name, username, password and roles in any order, then one user per line.
+     * Fields may be double quoted and several roles are separated by ';'.
+     * */
+    static UserImportReader csv(InputStream body) {
+        return new UserImportReader(body) {
+            private int nameColumn = -1;
+            private int usernameColumn = -1;
+            private int passwordColumn = -1;
+            private int rolesColumn = -1;
+
+            @Override
+            UserImportRow parse(String line) {
+                List<String> fields = splitCsv(line);
+                if (fields == null) {
+                    return failed("malformed CSV: unterminated quote");
+                }
+                if (usernameColumn < 0) {
+                    readHeader(fields);
+                    return null;
+                }
+                UserImportRow row = new UserImportRow();
+                row.setName(field(fields, nameColumn));
+                row.setUsername(field(fields, usernameColumn));
+                row.setPassword(field(fields, passwordColumn));
+                String roles = field(fields, rolesColumn);
+                if (roles != null && !roles.isBlank()) {
+                    for (String role : roles.split(";")) {
+                        if (!role.isBlank()) {
+                            row.getRoles().add(role.trim());
+                        }
+                    }
+                }
+                return row;
+            }
+
+            private void readHeader(List<String> header) {
+                for (int i = 0; i < header.size(); i++) {
+                    switch (header.get(i).trim().toLowerCase(Locale.ROOT)) {
+                        case "name":
+                            nameColumn = i;
+                            break;
+                        case "username":
+                            usernameColumn = i;
+                            break;
+                        case "password":
+                            passwordColumn = i;
+                            break;
+                        case "roles":
+                            rolesColumn = i;
+                            break;
+                        default:
+                            break;
+                    }
+                }
+                if (usernameColumn < 0 || passwordColumn < 0) {
+                    throw new IllegalArgumentException("The CSV header must name at least the username and password columns, got " + header);
+                }
+            }
+        };
+    }
+
+    /*
+     * Returns the parsed row, a row carrying an error when the line is malformed, or null for a line that holds no
+     * user (the CSV header).
+     * */
+    abstract UserImportRow parse(String line);
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            String line = readLine();
+            if (line == null) {
+                return false;
+            }
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            next = parse(line);
+            if (next != null) {
+                next.setLine(lineNumber);
+            }
+        }
+        return true;
+        /*
+         * Lines are pulled from the request body only as the import asks for rows, so the upload is never buffered
+         * as a whole.
+         * */
+    }
+
+    @Override
+    public UserImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        UserImportRow row = next;
+        next = null;
+        return row;
+    }
+
+    private String readLine() {
+        try {
+            return reader.readLine();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private static UserImportRow failed(String error) {
+        UserImportRow row = new UserImportRow();
+        row.setError(error);
+        return row;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    /*
+     * Splits one CSV line, a quoted field may contain commas and a doubled quote stands for a quote. Returns null
+     * when a quote is left open.
+     * */
+    private static List<String> splitCsv(String line) {
+        if (line.indexOf('"') < 0) {
+            return Arrays.asList(line.split(",", -1));
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
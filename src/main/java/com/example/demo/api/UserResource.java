@@ -1,33 +1,50 @@
 package com.example.demo.api;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import com.example.demo.domain.Role;
 import com.example.demo.domain.User;
+import com.example.demo.security.AuthMetrics;
+import com.example.demo.security.RefreshTokenStore;
+import com.example.demo.security.TokenResponseWriter;
+import com.example.demo.security.TokenService;
+import com.example.demo.service.RoleGrantResult;
+import com.example.demo.service.UserImportResult;
+import com.example.demo.service.UserImportRow;
+import com.example.demo.service.UserImportService;
 import com.example.demo.service.UserService;
+import com.example.demo.service.impl.DatasetVersion;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
-import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
 /**
  * @developed-by : mGunawardhana
@@ -39,13 +56,88 @@ import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
 @RequiredArgsConstructor
 public class UserResource {
 
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
     private final UserService userService;
+    private final TokenService tokenService;
+    private final RefreshTokenStore refreshTokenStore;
+    private final AuthMetrics authMetrics;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+    private final DatasetVersion datasetVersion;
+
+    @Value("${users.page.max-size:500}")
+    private int maxPageSize;
 
+    /*
+     * The read endpoints answer If-None-Match before anything else: while no user or role has changed since the
+     * client's last poll, checkNotModified sends a 304 and neither Jackson nor, within the refresh interval of
+     * DatasetVersion, the database is touched. The version is taken before the data is read, so a change that commits
+     * in between costs the client one extra download on its next poll. A change made on another instance can go
+     * unnoticed for up to users.version.refresh-millis.
+     * */
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getUsers() {
+    public ResponseEntity<List<User>> getUsers(WebRequest webRequest) {
+        if (webRequest.checkNotModified(datasetVersion.etag())) {
+            return null;
+        }
         return ResponseEntity.ok().body(userService.getUsers());
     }
 
+    @GetMapping("/users/page")
+    public ResponseEntity<UserPage> getUsersPage(@RequestParam(required = false) Long after,
+                                                 @RequestParam(defaultValue = "50") int limit,
+                                                 WebRequest webRequest) {
+        if (webRequest.checkNotModified(datasetVersion.etag())) {
+            return null;
+        }
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+        List<User> users = userService.getUsersAfter(after, pageSize);
+        Long next = users.size() == pageSize ? users.get(users.size() - 1).getId() : null;
+        return ResponseEntity.ok().body(new UserPage(users, next));
+        /*
+         * "next" is the id of the last user on the page, passing it back as ?after= returns the following page. It
+         * is null once a page comes back short, which means there are no more users.
+         * */
+    }
+
+    @GetMapping(value = "/users/stream", produces = APPLICATION_NDJSON_VALUE)
+    public void streamUsers(WebRequest webRequest, HttpServletResponse response) throws IOException {
+        if (webRequest.checkNotModified(datasetVersion.etag())) {
+            return;
+        }
+        response.setContentType(APPLICATION_NDJSON_VALUE);
+        ObjectWriter writer = objectMapper.writerFor(User.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(new SerializedString("\n"));
+            userService.streamUsers(user -> {
+                try {
+                    writer.writeValue(generator, user);
+                } catch (IOException exception) {
+                    throw new UncheckedIOException(exception);
+                }
+            });
+            generator.writeRaw('\n');
+        }
+        /*
+         * One JSON object per line (NDJSON) is written while the rows are read, so neither the full list of users
+         * nor the full response body is ever held in memory.
+         * */
+    }
+
+    @PostMapping(value = "/users/import", consumes = {APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    public ResponseEntity<UserImportResult> importUsers(HttpServletRequest request) throws IOException {
+        Iterator<UserImportRow> rows = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(TEXT_CSV)
+                ? UserImportReader.csv(request.getInputStream())
+                : UserImportReader.ndjson(request.getInputStream(), objectMapper.readerFor(UserImportRow.class));
+        return ResponseEntity.ok().body(userImportService.importUsers(rows));
+        /*
+         * The body is read line by line while the users are imported. A row that cannot be parsed or saved is listed
+         * in the response with its line number, the other rows are imported regardless.
+         * */
+    }
+
     @PostMapping("/user/save")
     public ResponseEntity<User> saveUser(@RequestBody User user) {
         /*
@@ -89,6 +181,15 @@ public class UserResource {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping("/role/addtousers")
+    public ResponseEntity<RoleGrantResult> addRolesToUsers(@RequestBody List<RoleToUserForm> forms) {
+        Map<String, Set<String>> roleNamesByUsername = new LinkedHashMap<>();
+        for (RoleToUserForm form : forms) {
+            roleNamesByUsername.computeIfAbsent(form.getUsername(), username -> new LinkedHashSet<>()).add(form.getRoleName());
+        }
+        return ResponseEntity.ok().body(userService.addRolesToUsers(roleNamesByUsername));
+    }
+
     @GetMapping("/token/refresh")
     public void refreshToken(HttpServletRequest request, HttpServletResponse response) throws IOException {
 
@@ -103,6 +204,7 @@ public class UserResource {
              *  the string starts with a specified prefix. In this case, it checks if the
              *  authorizationHeader string starts with the exact string "Bearer ".
              */
+            Timer.Sample sample = authMetrics.start();
             try {
                 String refresh_token = authorizationHeader.substring("Bearer ".length());
 
@@ -120,55 +222,24 @@ public class UserResource {
                  *  string.
                  */
 
-                Algorithm algorithm = Algorithm.HMAC256("secret".getBytes());
-
-                JWTVerifier verifier = JWT.require(algorithm).build();
+                DecodedJWT decodedJWT = tokenService.verify(refresh_token);
                 /*
-                 *  The JWTVerifier is typically employed in the server-side code of applications
-                 *  that receive JWTs from clients (e.g., web browsers, mobile apps) as part of the
-                 *  authentication process. Its main purpose is to validate the received JWT to ensure
-                 *  that it hasn't been tampered with, is properly signed, and has not expired.
-                 *
-                 *  1) Token Verification: The primary use of JWTVerifier is to verify the authenticity and
-                 *     integrity of a received JWT. It checks the token's signature using a specified cryptographic
-                 *     key or certificate to ensure that the token has not been tampered with.
-                 *
-                 *  2) Expiration Check: JWTs often include an expiration time (the "exp" claim) that
-                 *     indicates until when the token is valid. The JWTVerifier checks the expiration time
-                 *     to ensure that the token has not expired and is still within its validity period.
-                 *
-                 *  3) Issuer and Audience Verification: JWTs may contain an issuer ("iss" claim) and an
-                 *     audience ("aud" claim) to specify the token's intended recipients and the issuer of the token.
-                 *     The JWTVerifier can check these claims to ensure that the token is intended for the specific
-                 *     server/application and that the issuer is trusted.
-                 *
-                 *  4) Custom Claim Validation: JWTs can include custom claims that hold application-specific data.
-                 *     The JWTVerifier allows you to define custom claim validations to check if the token contains
-                 *     the necessary claims and if their values meet your application's requirements.
-                 *
-                 *  5) Decoding JWT Claims: Though the primary responsibility of the JWTVerifier is to verify the
-                 *     token's signature and claims, it may also provide utilities to decode and access the claims
-                 *     stored in the JWT without performing full verification.
-                 *
-                 *  By using JWTVerifier, applications can confidently validate the JWTs they receive, ensuring that
-                 *  only authentic and valid tokens are accepted, and use the claims in those tokens to make informed
-                 *  decisions about the user's access and permissions within the application.
+                 *  TokenService.verify picks the shared JWTVerifier of the key named in the "kid" header. It checks
+                 *  the token's signature and its expiration time ("exp" claim), so a tampered or expired refresh token
+                 *  is rejected before the user is loaded.
                  */
 
-                DecodedJWT decodedJWT = verifier.verify(refresh_token);
-
                 String username = decodedJWT.getSubject();
 
-                User user = userService.getUser(username);
-                String access_token = JWT.create().withSubject(user.getUsername()).withExpiresAt(new Date(System.currentTimeMillis() + 10 * 60 * 1000)).withIssuer(request.getRequestURL().toString()).withClaim("roles", user.getRoles().stream().map(Role::getName).collect(Collectors.joining())).sign(algorithm);
+                String access_token = tokenService.createAccessToken(username, request.getRequestURL().toString(), userService.getRoleNames(username));
 
                 /*
-                 * JWT.create(): This creates a new instance of JWT from the com.auth0:java-jwt library, which is used
-                 * to build a new JWT.
+                 * tokenService.createAccessToken(...): This builds a new JWT with the same claims as the login flow and
+                 * signs it with the active key.
                  *
-                 * .withSubject(user.getUsername()): This sets the "sub" claim of the JWT. The "sub" claim represents
-                 * the subject of the token, which is typically the unique identifier of the user associated with the
-                 * token. In this case, it seems that user.getUsername() is used to identify the subject.
+                 * .withSubject(username): This sets the "sub" claim of the JWT. The "sub" claim represents the subject
+                 * of the token, which is typically the unique identifier of the user associated with the token. The
+                 * username is taken from the verified refresh token.
                  *
                  * .withExpiresAt(new Date(System.currentTimeMillis() + 10 * 60 * 1000)): This sets the expiration time
                  * ("exp" claim) of the JWT. It calculates the expiration time as the current time (in milliseconds)
@@ -179,28 +250,36 @@ public class UserResource {
                  * represents the issuer of the token. The request.getRequestURL().toString() retrieves the current
                  * request URL as a string, and this value is used as the issuer of the token.
                  *
-                 * .withClaim("roles", user.getRoles().stream().map(Role::getName).collect(Collectors.joining())):
-                 *  This adds a custom claim to the JWT named "roles". It appears that user.getRoles() returns a list
-                 *  of roles associated with the user, and the code maps these roles to their names (assuming Role class
-                 *  has a getName() method). The roles' names are then concatenated into a single string using
-                 *  Collectors.joining(), and this string is set as the value of the "roles" claim.
+                 * .withClaim("roles", ...): This adds a custom claim to the JWT named "roles". userService.getRoleNames()
+                 *  returns the names of the user's roles from the user cache, so a refresh does not go to the database
+                 *  while the cached entry is fresh. The list is the same array shape the login flow writes and
+                 *  CustomerAuthorizationFilter reads.
                  *
-                 * .sign(algorithm): This is the final step to sign the JWT. The sign() method takes an algorithm
-                 * (algorithm) as an argument, which is used to sign the JWT. The algorithm variable should contain
-                 * the cryptographic signing algorithm, such as HMAC SHA-256 or RSA.
+                 * .sign(algorithm): This is the final step to sign the JWT. The algorithm of the active key is built
+                 * once by TokenService and shared, and its key id is written to the "kid" header.
                  *
                  * After executing this code, access_token will hold the JWT, which can be used for authentication and
                  * authorization purposes. The generated token will contain the specified claims and will be signed with
                  * the chosen cryptographic algorithm, ensuring its integrity and authenticity.
                  *  */
 
-                Map<String, String> tokens = new HashMap<>();
-                tokens.put("access_token", access_token);
-                tokens.put("refresh_token", refresh_token);
-                response.setContentType(APPLICATION_JSON_VALUE);
-                new ObjectMapper().writeValue(response.getOutputStream(), tokens);
+                String next_refresh_token = tokenService.createRefreshToken(username, request.getRequestURL().toString(), refreshTokenStore.rotate(decodedJWT.getId(), username));
+                /*
+                 *  RefreshTokenStore.rotate checks the "jti" of the refresh token against its in-memory index, marks it
+                 *  as used and returns the id of the next token of the same family. A refresh token is good for one
+                 *  refresh only: presenting a used one again revokes the whole family, so a stolen copy stops working
+                 *  as soon as either party uses it twice.
+                 *
+                 *  It runs last, once the access token has been built: a refresh that fails before this point, say
+                 *  because the user is gone, leaves the presented token unused, so the client can retry it without
+                 *  being taken for a thief.
+                 */
+
+                TokenResponseWriter.writeTokens(response, access_token, next_refresh_token);
+                authMetrics.refreshed(sample, null);
 
             } catch (Exception exception) {
+                authMetrics.refreshed(sample, exception);
                 log.error("Error logging in:{}", exception.getMessage());
                 response.setHeader("error", exception.getMessage());
                 response.setStatus(FORBIDDEN.value());
@@ -213,10 +292,7 @@ public class UserResource {
                  * not have the necessary permissions to access the specific endpoint or resource.
                  */
 
-                Map<String, String> error = new HashMap<>();
-                error.put("error_message", exception.getMessage());
-                response.setContentType(APPLICATION_JSON_VALUE);
-                new ObjectMapper().writeValue(response.getOutputStream(), error);
+                TokenResponseWriter.writeError(response, exception.getMessage());
             }
         } else {
             throw new RuntimeException("Refresh token is missing!");
@@ -225,6 +301,13 @@ public class UserResource {
     }
 }
 
+@Data
+@AllArgsConstructor
+class UserPage {
+    private List<User> users;
+    private Long next;
+}
+
 @Data
 class RoleToUserForm {
     private String username;
@@ -0,0 +1,26 @@
+package com.example.demo.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetRevision {
+    /*
+     * One row per dataset whose ETag is shared by every instance, "users" covers the users and their roles. Every
+     * transaction that changes the dataset increments revision before it commits, see DatasetVersion.
+     * */
+    @Id
+    private String name;
+    private long revision;
+}
@@ -0,0 +1,33 @@
+package com.example.demo.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Entity
+@Table(indexes = {@Index(columnList = "familyId"), @Index(columnList = "expiresAt"), @Index(columnList = "username")})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    /*
+     * The "jti" claim of the refresh token. Every token a login hands out through rotation shares the familyId of the
+     * first one, so a reused token can revoke the whole chain.
+     * */
+    @Id
+    private String id;
+    private String familyId;
+    private String username;
+    private long expiresAt;
+    private boolean used;
+    private boolean revoked;
+}
@@ -4,10 +4,12 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
 
 /**
  * @developed-by : mGunawardhana
@@ -19,7 +21,23 @@ import javax.persistence.Id;
 @AllArgsConstructor
 public class Role {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "role_seq")
+    @SequenceGenerator(name = "role_seq", sequenceName = "role_seq", allocationSize = 50)
     private Long id;
+    /*
+     * A pooled sequence hands out 50 ids per round trip, which is what lets Hibernate batch the inserts. MySQL has
+     * no sequences, there Hibernate keeps the counter in a one row role_seq table.
+     * */
     private String name;
+    @Column(unique = true, updatable = false)
+    private Integer ordinal;
+    /*
+     * A dense number, 0 for the first role and one more for every role after it, handed out by saveRole. It is the
+     * role's bit in the roles bitmask of an access token (RoleCatalog.toBitmask), which the id cannot be: ids come
+     * from a pooled sequence and jump by 50 on every restart.
+     * */
+
+    public Role(Long id, String name) {
+        this(id, name, null);
+    }
 }
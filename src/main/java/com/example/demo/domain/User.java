@@ -1,13 +1,14 @@
 package com.example.demo.domain;
 
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * @developed-by : mGunawardhana
@@ -19,13 +20,26 @@ import java.util.Collection;
 @AllArgsConstructor
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
+    /*
+     * A pooled sequence hands out 50 ids per round trip, which is what lets Hibernate batch the inserts. MySQL has
+     * no sequences, there Hibernate keeps the counter in a one row user_seq table.
+     * */
     private String name;
     private String username;
     private String password;
 
-    @ManyToMany(fetch = FetchType.EAGER)
-    private Collection<Role> roles = new ArrayList<>();
+    @ManyToMany(fetch = FetchType.LAZY)
+    private Set<Role> roles = new HashSet<>();
+    /*
+     * A Set instead of a bag: Hibernate can then add or remove a single row of the user_roles join table, where a bag
+     * is deleted and re-inserted as a whole on every change.
+     * */
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 
 }
@@ -1,28 +1,35 @@
 package com.example.demo.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.security.AuthMetrics;
+import com.example.demo.security.LoginExecutor;
+import com.example.demo.security.RefreshTokenStore;
+import com.example.demo.security.TokenResponseWriter;
+import com.example.demo.security.TokenService;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.stream.Collectors;
 
-import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 /**
  * @developed-by : mGunawardhana
@@ -32,9 +39,71 @@ import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
 public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
     private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+    private final LoginExecutor loginExecutor;
+    private final RefreshTokenStore refreshTokenStore;
+    private final AuthMetrics authMetrics;
 
-    public CustomAuthenticationFilter(AuthenticationManager authenticationManager) {
+    public CustomAuthenticationFilter(AuthenticationManager authenticationManager, TokenService tokenService, LoginExecutor loginExecutor, RefreshTokenStore refreshTokenStore, AuthMetrics authMetrics) {
         this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
+        this.loginExecutor = loginExecutor;
+        this.refreshTokenStore = refreshTokenStore;
+        this.authMetrics = authMetrics;
+    }
+
+    @Override
+    public void doFilter(ServletRequest req, ServletResponse res, FilterChain chain) throws IOException, ServletException {
+        HttpServletRequest request = (HttpServletRequest) req;
+        HttpServletResponse response = (HttpServletResponse) res;
+        if (!requiresAuthentication(request, response) || !request.isAsyncSupported()) {
+            super.doFilter(req, res, chain);
+            return;
+        }
+
+        AsyncContext asyncContext = request.startAsync();
+        boolean accepted = loginExecutor.submit(() -> authenticate(request, response, asyncContext), () -> shed(response, asyncContext));
+        if (!accepted) {
+            shed(response, asyncContext);
+        }
+        /*
+         * The password check runs on the bounded LoginExecutor instead of the Tomcat request thread. startAsync()
+         * lets this thread go back to the pool right away, so a burst of logins can only ever take the login threads
+         * and requests that just need CustomerAuthorizationFilter keep being served. When the login queue is full
+         * the request is answered at once with 503 and a Retry-After header instead of waiting in line.
+         * */
+    }
+
+    private void authenticate(HttpServletRequest request, HttpServletResponse response, AsyncContext asyncContext) {
+        try {
+            Authentication authentication = attemptAuthentication(request, response);
+            successfulAuthentication(request, response, null, authentication);
+        } catch (AuthenticationException failed) {
+            try {
+                unsuccessfulAuthentication(request, response, failed);
+            } catch (Exception exception) {
+                log.error("Error handling failed login:{}", exception.getMessage());
+            }
+        } catch (Exception exception) {
+            log.error("Error logging in:{}", exception.getMessage());
+            if (!response.isCommitted()) {
+                response.setStatus(INTERNAL_SERVER_ERROR.value());
+            }
+        } finally {
+            asyncContext.complete();
+        }
+    }
+
+    private void shed(HttpServletResponse response, AsyncContext asyncContext) {
+        try {
+            response.setStatus(SERVICE_UNAVAILABLE.value());
+            response.setHeader(RETRY_AFTER, String.valueOf(loginExecutor.getRetryAfterSeconds()));
+            TokenResponseWriter.writeError(response, "Too many logins in progress, retry later");
+        } catch (IOException exception) {
+            log.error("Error rejecting login:{}", exception.getMessage());
+        } finally {
+            asyncContext.complete();
+        }
     }
 
     @Override
@@ -42,7 +111,6 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
         String username = request.getParameter("username");
         String password = request.getParameter("password");
         log.info("Username is:{}", username);
-        log.info("Password is:{}", password);
 
         UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(username, password);
         /*
@@ -54,7 +122,7 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
          * authentication token to be passed to the authentication manager.
          */
 
-        return authenticationManager.authenticate(authenticationToken);
+        return authenticate(authenticationToken);
         /*
          * The AuthenticationManager is responsible for handling authentication requests and validating credentials.
          *
@@ -75,6 +143,25 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
 
     }
 
+    private Authentication authenticate(UsernamePasswordAuthenticationToken authenticationToken) {
+        Timer.Sample sample = authMetrics.start();
+        try {
+            Authentication authentication = authenticationManager.authenticate(authenticationToken);
+            authMetrics.login(sample, null);
+            return authentication;
+        } catch (UsernameNotFoundException exception) {
+            authMetrics.login(sample, exception);
+            throw new BadCredentialsException("Bad credentials");
+        } catch (AuthenticationException exception) {
+            authMetrics.login(sample, exception);
+            throw exception;
+        }
+        /*
+         * The provider reports an unknown user as such so the metrics can tell it apart from a wrong password, the
+         * client still gets the same "Bad credentials" for both.
+         * */
+    }
+
     @Override
     protected void successfulAuthentication(HttpServletRequest request, HttpServletResponse response, FilterChain chain, Authentication authentication) throws IOException, ServletException {
         User user = (User) authentication.getPrincipal();
@@ -96,29 +183,13 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
          * on the specific application requirements.
          * */
 
-        Algorithm algorithm = Algorithm.HMAC256("secret".getBytes());
-        /*
-        * HMAC256: This is a constant defined in the Algorithm enumeration. It refers to the HMAC (Hash-based Message
-        * Authentication Code) algorithm using the SHA-256 hash function. HMAC is used for message authentication and
-        * ensures the integrity and authenticity of the data.
-        *
-        * "secret": This is the secret key used for HMAC. It is a string representing the secret key that will be used
-        * in combination with the SHA-256 algorithm to create the digital signature for JWTs.
-        *
-        * "secret": This is the secret key used for HMAC. It is a string representing the secret key that will be used
-        * in combination with the SHA-256 algorithm to create the digital signature for JWTs.
-        *
-        * .getBytes(): This method converts the "secret" string to a byte array. The HMAC algorithm requires the secret
-        * key as bytes, so this step converts the secret string to bytes.
-        *
-        * When combined, Algorithm.HMAC256("secret".getBytes()) creates an instance of the HMAC256 algorithm with the
-        * provided secret key. This algorithm can be used to sign and verify JWTs using the specified cryptographic
-        * configuration.
-        * */
-
-        String access_token = JWT.create().withSubject(user.getUsername()).withExpiresAt(new Date(System.currentTimeMillis() + 10 * 60 * 1000)).withIssuer(request.getRequestURL().toString()).withClaim("roles", user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList())).sign(algorithm);
+        Timer.Sample sample = authMetrics.start();
+        String access_token = tokenService.createAccessToken(user.getUsername(), request.getRequestURL().toString(), user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()));
 
         /*
+        * TokenService.createAccessToken builds the JWT with the shared, preconstructed signing algorithm of the active
+        * key and adds the "kid" header so the token can be verified after the key has been rotated.
+        *
         * .withSubject(user.getUsername()): This sets the "sub" claim of the JWT. The "sub" claim represents the subject
         *  of the token, which is typically the unique identifier of the user associated with the token. In this case,
         *  it seems that user.getUsername() is used to identify the subject.
@@ -148,35 +219,24 @@ public class CustomAuthenticationFilter extends UsernamePasswordAuthenticationFi
         * its integrity and authenticity.
         * */
 
-        String refresh_token = JWT.create().withSubject(user.getUsername()).withExpiresAt(new Date(System.currentTimeMillis() + 30 * 60 * 1000)).withIssuer(request.getRequestURL().toString()).sign(algorithm);
+        String refresh_token = tokenService.createRefreshToken(user.getUsername(), request.getRequestURL().toString(), refreshTokenStore.issue(user.getUsername()));
+        /*
+         * Every login starts a new refresh token family, each refresh replaces the token with the next one of the
+         * family and reusing an old token revokes them all, see RefreshTokenStore.
+         * */
 
-        Map<String, String> tokens = new HashMap<>();
-        tokens.put("access_token", access_token);
-        tokens.put("refresh_token", refresh_token);
-        response.setContentType(APPLICATION_JSON_VALUE);
-        logger.info(tokens);
+        authMetrics.tokenSigned(sample);
 
-        new ObjectMapper().writeValue(response.getOutputStream(), tokens);
+        log.info("Tokens issued for {}", user.getUsername());
+
+        TokenResponseWriter.writeTokens(response, access_token, refresh_token);
         /*
-        * new ObjectMapper(): This creates a new instance of the Jackson ObjectMapper class. The ObjectMapper is the
-        * central class provided by Jackson's Databind module, and it is used to read and write JSON data to and from
-        * Java objects.
-        *
-        * .writeValue(response.getOutputStream(), tokens): This method call writes the tokens object as JSON data to the
-        *  output stream of the HTTP response.
+        * TokenResponseWriter.writeTokens(...): This writes {"access_token":...,"refresh_token":...} straight to the
+        * output stream of the HTTP response. The field names are encoded once and the token values are escaped the
+        * same way Jackson escapes them, so no HashMap or ObjectMapper has to be created for every login.
         *
         * getOutputStream(): This method retrieves the output stream associated with the response. It allows you to
         * write data to the response that will be sent back to the client.
-        *
-        * tokens: This is the Java object that contains the data you want to convert to JSON and send as the response.
-        * The ObjectMapper will serialize the tokens object into a JSON representation.
-        *
-        * The writeValue() method will convert the tokens object into a JSON string and write it to the response's
-        * output stream. The client that initiated the HTTP request will receive the JSON data as the response.
-        *
-        * By using writeValue() in this manner, you can easily serialize Java objects into JSON and send them as
-        * responses in web applications or APIs. This allows clients to receive structured data in a format they can
-        * easily parse and process.
         * */
     }
 }
\ No newline at end of file
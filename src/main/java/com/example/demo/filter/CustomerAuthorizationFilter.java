@@ -1,13 +1,10 @@
 package com.example.demo.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
-import com.auth0.jwt.interfaces.DecodedJWT;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.demo.security.AccessTokenRenewer;
+import com.example.demo.security.AccessTokenVerifier;
+import com.example.demo.security.TokenResponseWriter;
+import com.example.demo.security.VerifiedToken;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -16,15 +13,9 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
 
-import static java.util.Arrays.stream;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 import static org.springframework.http.HttpStatus.FORBIDDEN;
-import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
 
 /**
  * @developed-by : mGunawardhana
@@ -32,6 +23,15 @@ import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
  */
 @Slf4j
 public class CustomerAuthorizationFilter extends OncePerRequestFilter {
+
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final AccessTokenRenewer accessTokenRenewer;
+
+    public CustomerAuthorizationFilter(AccessTokenVerifier accessTokenVerifier, AccessTokenRenewer accessTokenRenewer) {
+        this.accessTokenVerifier = accessTokenVerifier;
+        this.accessTokenRenewer = accessTokenRenewer;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         if (request.getServletPath().equals("/api/login") || request.getServletPath().equals("/api/token/refresh")) {
@@ -41,25 +41,22 @@ public class CustomerAuthorizationFilter extends OncePerRequestFilter {
             if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
                 try {
                     String token = authorizationHeader.substring("Bearer ".length());
-                    Algorithm algorithm = Algorithm.HMAC256("secret".getBytes());
-                    JWTVerifier verifier = JWT.require(algorithm).build();
-                    DecodedJWT decodedJWT = verifier.verify(token);
-
-                    String username = decodedJWT.getSubject();
-
-                    String[] roles = decodedJWT.getClaim("roles").asArray(String.class);
-
-                    Collection<SimpleGrantedAuthority> authorities = new ArrayList<>();
-
-                    stream(roles).forEach(role -> {
-
-                        authorities.add(new SimpleGrantedAuthority(role));
-
-                    });
+                    VerifiedToken verifiedToken = accessTokenVerifier.verify(token);
+                    /*
+                     * AccessTokenVerifier skips the signature check for a token it has verified before, builds the
+                     * authorities from the roles claim otherwise and rejects a token that has been revoked since.
+                     * */
 
-                    UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(username, null, authorities);
+                    String renewedToken = accessTokenRenewer.renew(verifiedToken, request.getRequestURL().toString());
+                    if (renewedToken != null) {
+                        response.setHeader(AccessTokenRenewer.RENEWED_TOKEN_HEADER, renewedToken);
+                    }
+                    /*
+                     * With jwt.renewal.enabled, a token that is about to expire gets its successor in a response
+                     * header of a request the client makes anyway, so it never needs an extra refresh round trip.
+                     * */
 
-                    SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                    SecurityContextHolder.getContext().setAuthentication(verifiedToken.getAuthentication());
                     /*
                      * SecurityContextHolder: This is a class provided by Spring Security that serves as a central holder
                      * for the security-related context information in the application. It manages the security context,
@@ -84,10 +81,7 @@ public class CustomerAuthorizationFilter extends OncePerRequestFilter {
                     log.error("Error logging in:{}", exception.getMessage());
                     response.setHeader("error", exception.getMessage());
                     response.setStatus(FORBIDDEN.value());
-                    Map<String, String> error = new HashMap<>();
-                    error.put("error_message", exception.getMessage());
-                    response.setContentType(APPLICATION_JSON_VALUE);
-                    new ObjectMapper().writeValue(response.getOutputStream(), error);
+                    TokenResponseWriter.writeError(response, exception.getMessage());
                 }
             } else {
                 filterChain.doFilter(request, response);
@@ -0,0 +1,74 @@
+package com.example.demo.filter;
+
+import com.example.demo.security.LoginRateLimiter;
+import com.example.demo.security.TokenResponseWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private static final long SUMMARY_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final LongAdder throttledSinceSummary = new LongAdder();
+    private final AtomicLong lastSummaryNanos = new AtomicLong(System.nanoTime());
+
+    public LoginRateLimitFilter(LoginRateLimiter loginRateLimiter) {
+        this.loginRateLimiter = loginRateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("POST".equals(request.getMethod()) && request.getServletPath().equals("/api/login"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String username = request.getParameter("username");
+        long retryAfterSeconds = loginRateLimiter.tryAcquire(username, request.getRemoteAddr());
+        if (retryAfterSeconds == 0) {
+            filterChain.doFilter(request, response);
+        } else {
+            log.debug("Login throttled for user {} from {}", username, request.getRemoteAddr());
+            logSummary();
+            response.setStatus(TOO_MANY_REQUESTS.value());
+            response.setHeader(RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            TokenResponseWriter.writeError(response, "Too many login attempts, retry later");
+            /*
+             * The request stops here, before CustomAuthenticationFilter, so a throttled caller cannot make the server
+             * spend any BCrypt work.
+             * */
+        }
+    }
+
+    /*
+     * The limiter fires most during a credential spray, which is exactly when a warning per request would flood the
+     * log. Each throttled login is logged at debug, and at most one warning a minute sums them up. The totals are
+     * also exported as the login.rate_limit metrics.
+     * */
+    private void logSummary() {
+        throttledSinceSummary.increment();
+        long now = System.nanoTime();
+        long last = lastSummaryNanos.get();
+        if (now - last >= SUMMARY_INTERVAL_NANOS && lastSummaryNanos.compareAndSet(last, now)) {
+            log.warn("{} logins throttled in the last {} s", throttledSinceSummary.sumThenReset(), TimeUnit.NANOSECONDS.toSeconds(now - last));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.List;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Configuration
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    private static final String CONTROLLER_START = ServerTimingConfig.class.getName() + ".controllerStart";
+
+    /*
+     * Registered ahead of the Spring Security filter chain, so the time spent in CustomerAuthorizationFilter is part
+     * of the request it reports on.
+     * */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(@Value("${server-timing.mode:off}") ServerTimingFilter.Mode mode,
+                                                                         @Value("${server-timing.debug-header:X-Debug-Timing}") String debugHeader,
+                                                                         @Value("${server-timing.excluded-paths:/api/login,/api/users/stream}") List<String> excludedPaths) {
+        FilterRegistrationBean<ServerTimingFilter> registration = new FilterRegistrationBean<>(new ServerTimingFilter(mode, debugHeader, excludedPaths));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                long start = ServerTimings.start();
+                if (start != 0L) {
+                    request.setAttribute(CONTROLLER_START, start);
+                    if (isAdmin(SecurityContextHolder.getContext().getAuthentication())) {
+                        ServerTimings.permit();
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+                Object start = request.getAttribute(CONTROLLER_START);
+                if (start != null) {
+                    ServerTimings.stop(ServerTimings.Stage.CONTROLLER, (Long) start);
+                }
+            }
+        });
+        /*
+         * The start is only kept as a request attribute while timings are recorded, an untimed request does not box
+         * a Long for it.
+         * */
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication != null && authentication.getAuthorities().stream().anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
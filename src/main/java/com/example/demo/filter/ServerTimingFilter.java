@@ -0,0 +1,74 @@
+package com.example.demo.filter;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    public enum Mode {
+        OFF, HEADER, ALWAYS
+    }
+
+    private final Mode mode;
+    private final String debugHeader;
+    private final List<String> excludedPaths;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    public ServerTimingFilter(Mode mode, String debugHeader, List<String> excludedPaths) {
+        this.mode = mode;
+        this.debugHeader = debugHeader;
+        this.excludedPaths = List.copyOf(excludedPaths);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (mode == Mode.OFF || (mode == Mode.HEADER && request.getHeader(debugHeader) == null)) {
+            return true;
+        }
+        String path = request.getServletPath();
+        return excludedPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+        /*
+         * Excluded are the responses this filter must not buffer: logins are answered on a LoginExecutor thread after
+         * this filter has returned, and streaming endpoints like /api/users/stream would be held in memory in full
+         * instead of being written while the rows are read.
+         * */
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ServerTimings timings = ServerTimings.begin();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            ServerTimings.end();
+            if (mode == Mode.ALWAYS || timings.isPermitted()) {
+                wrapper.setHeader(SERVER_TIMING, timings.toHeaderValue());
+            }
+            wrapper.copyBodyToResponse();
+        }
+        /*
+         * The body is held back until the request is done so the header can still be added once every stage has
+         * run. Only requests that asked for timings are buffered like this.
+         *
+         * This filter runs before Spring Security, so who is asking is only known once the request has reached a
+         * controller: in header mode the timings are only returned when ServerTimingConfig found an admin there.
+         * The timings reveal how long token checks and queries take, which is not for every caller to see.
+         * */
+    }
+}
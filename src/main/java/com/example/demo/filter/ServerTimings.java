@@ -0,0 +1,114 @@
+package com.example.demo.filter;
+
+import java.util.Locale;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public final class ServerTimings {
+
+    public enum Stage {
+        PARSE("parse", "Token parse"),
+        VERIFY("verify", "Signature verify"),
+        AUTHORITIES("authorities", "Authority build"),
+        CONTROLLER("controller", "Controller, JPA included"),
+        JPA("jpa", "Repository calls");
+
+        private final String metricName;
+        private final String description;
+
+        Stage(String metricName, String description) {
+            this.metricName = metricName;
+            this.description = description;
+        }
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    /*
+     * Only set by ServerTimingFilter for a request that asked for timings. For every other request start() finds
+     * nothing here and returns 0, so the stages cost a ThreadLocal lookup and allocate nothing.
+     * */
+    private static final ThreadLocal<ServerTimings> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[STAGES.length];
+    private final int[] counts = new int[STAGES.length];
+    private boolean permitted;
+
+    private ServerTimings() {
+    }
+
+    static ServerTimings begin() {
+        ServerTimings timings = new ServerTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /*
+     * Marks the current request as one whose timings may be shown to the caller, see ServerTimingFilter.
+     * */
+    public static void permit() {
+        ServerTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.permitted = true;
+        }
+    }
+
+    boolean isPermitted() {
+        return permitted;
+    }
+
+    /*
+     * Returns the start of a stage, or 0 when the current request is not being timed.
+     * */
+    public static long start() {
+        return CURRENT.get() != null ? System.nanoTime() : 0L;
+    }
+
+    public static void stop(Stage stage, long startNanos) {
+        if (startNanos == 0L) {
+            return;
+        }
+        record(stage, System.nanoTime() - startNanos);
+    }
+
+    /*
+     * Adds a duration that was measured elsewhere, such as the repository call time Spring Data reports.
+     * */
+    public static void record(Stage stage, long nanos) {
+        ServerTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.nanos[stage.ordinal()] += nanos;
+            timings.counts[stage.ordinal()]++;
+        }
+    }
+
+    /*
+     * Formats the stages that ran as a Server-Timing header value, durations in milliseconds with microsecond
+     * precision, e.g. verify;dur=0.041;desc="Signature verify", jpa;dur=1.250;desc="Repository calls (2)".
+     * */
+    String toHeaderValue() {
+        StringBuilder header = new StringBuilder(192);
+        for (Stage stage : STAGES) {
+            int count = counts[stage.ordinal()];
+            if (count > 0) {
+                append(header, stage.metricName, nanos[stage.ordinal()], count > 1 ? stage.description + " (" + count + ")" : stage.description);
+            }
+        }
+        append(header, "total", System.nanoTime() - startNanos, "Request");
+        return header.toString();
+    }
+
+    private static void append(StringBuilder header, String name, long nanos, String description) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0)).append(";desc=\"").append(description).append('"');
+    }
+}
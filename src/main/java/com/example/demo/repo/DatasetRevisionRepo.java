@@ -0,0 +1,22 @@
+package com.example.demo.repo;
+
+import com.example.demo.domain.DatasetRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public interface DatasetRevisionRepo extends JpaRepository<DatasetRevision, String> {
+    @Query("select d.revision from DatasetRevision d where d.name = :name")
+    Long findRevision(@Param("name") String name);
+
+    @Transactional
+    @Modifying
+    @Query("update DatasetRevision d set d.revision = d.revision + 1 where d.name = :name")
+    int increment(@Param("name") String name);
+}
@@ -0,0 +1,147 @@
+package com.example.demo.repo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    public enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final boolean failover;
+    private final long replicaRetryNanos;
+
+    private volatile long replicaDownUntilNanos;
+    private volatile boolean replicaDown;
+
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder failovers = new LongAdder();
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, boolean failover, long replicaRetrySeconds) {
+        this.primary = primary;
+        this.replica = replica;
+        this.failover = failover;
+        this.replicaRetryNanos = TimeUnit.SECONDS.toNanos(replicaRetrySeconds);
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    /*
+     * Read-only transactions go to the replica, everything else, including work outside of a transaction, to the
+     * primary. The flag is only set once the transaction has started, which is why this data source sits behind a
+     * LazyConnectionDataSourceProxy: the connection is only fetched when the first statement runs.
+     * */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PRIMARY_READS.get() == null && !isReplicaDown() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    /*
+     * Sends the read-only transaction work runs in to the primary. It has to be called before the transaction's
+     * first statement, which is when the connection is picked. For reads whose result is handed out together with
+     * a version read from the primary, such as the ETag of the user list: a replica that has not caught up yet would
+     * return the rows from before a change under the version from after it, and clients would keep those rows until
+     * the next change.
+     * */
+    public static <T> T readFromPrimary(Supplier<T> work) {
+        if (PRIMARY_READS.get() != null) {
+            return work.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    /*
+     * With failover enabled a replica that cannot hand out a connection is skipped for replicaRetrySeconds and its
+     * reads go to the primary. The next read after that tries the replica again. With failover disabled the
+     * exception reaches the caller.
+     * */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineTargetDataSource() != replica) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaConnections.increment();
+            if (replicaDown) {
+                replicaDown = false;
+                log.info("Replica is available again, read-only transactions use it");
+            }
+            return connection;
+        } catch (SQLException exception) {
+            if (!failover) {
+                throw exception;
+            }
+            replicaDownUntilNanos = System.nanoTime() + replicaRetryNanos;
+            replicaDown = true;
+            failovers.increment();
+            log.warn("Replica unavailable, read-only transactions use the primary for {} s: {}", TimeUnit.NANOSECONDS.toSeconds(replicaRetryNanos), exception.getMessage());
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+    }
+
+    private boolean isReplicaDown() {
+        return replicaDown && System.nanoTime() - replicaDownUntilNanos < 0;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("datasource.routing.connections", replicaConnections, LongAdder::sum)
+                .description("Connections handed out by the routing data source")
+                .tag("route", "replica")
+                .register(registry);
+        FunctionCounter.builder("datasource.routing.connections", primaryConnections, LongAdder::sum)
+                .description("Connections handed out by the routing data source")
+                .tag("route", "primary")
+                .register(registry);
+        FunctionCounter.builder("datasource.routing.failovers", failovers, LongAdder::sum)
+                .description("Read-only transactions sent to the primary because the replica was unavailable")
+                .register(registry);
+        Gauge.builder("datasource.routing.replica.available", this, dataSource -> dataSource.isReplicaDown() ? 0 : 1)
+                .description("Whether read-only transactions currently use the replica")
+                .register(registry);
+    }
+
+    public long getReplicaConnectionCount() {
+        return replicaConnections.sum();
+    }
+
+    public long getPrimaryConnectionCount() {
+        return primaryConnections.sum();
+    }
+
+    public long getFailoverCount() {
+        return failovers.sum();
+    }
+}
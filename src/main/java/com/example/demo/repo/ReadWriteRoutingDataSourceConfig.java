@@ -0,0 +1,72 @@
+package com.example.demo.repo;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replica.url")
+public class ReadWriteRoutingDataSourceConfig {
+
+    /*
+     * Only active when app.datasource.replica.url is set, without it DataSourceAutoConfiguration builds the single
+     * pool from spring.datasource.* as before. The primary pool is built from the same properties, the replica pool
+     * from app.datasource.replica.* (url, username, password, driver-class-name, and hikari.* for the pool).
+     * */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(Environment environment) {
+        DataSourceProperties properties = Binder.get(environment).bind("app.datasource.replica", DataSourceProperties.class).get();
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setConnectionTimeout(1000);
+        return dataSource;
+        /*
+         * A replica that is down at startup must not stop the application, its reads fail over to the primary. The
+         * short connection timeout bounds how long the first read waits before failing over, both can be overridden
+         * under app.datasource.replica.hikari.
+         * */
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource,
+                                                                 HikariDataSource replicaDataSource,
+                                                                 @Value("${app.datasource.routing.failover:true}") boolean failover,
+                                                                 @Value("${app.datasource.routing.replica-retry-seconds:30}") long replicaRetrySeconds) {
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, failover, replicaRetrySeconds);
+    }
+
+    /*
+     * JPA, the transaction manager and everything else that needs a DataSource get this one. A transaction that
+     * never runs a statement, like loadUserByUsername answered from the user cache, never takes a connection from
+     * either pool.
+     * */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+}
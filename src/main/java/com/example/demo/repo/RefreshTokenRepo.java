@@ -0,0 +1,48 @@
+package com.example.demo.repo;
+
+import com.example.demo.domain.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public interface RefreshTokenRepo extends JpaRepository<RefreshToken, String> {
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select t from RefreshToken t where t.expiresAt > :now")
+    Stream<RefreshToken> streamUnexpired(@Param("now") long now);
+
+    /*
+     * Matches only an unused token of an unrevoked family, so of two instances flushing a rotation of the same token
+     * only one gets 1 back.
+     * */
+    @Modifying
+    @Query("update RefreshToken t set t.used = true where t.id = :id and t.used = false and t.revoked = false")
+    int markUsedIfUnused(@Param("id") String id);
+
+    @Query("select t.revoked from RefreshToken t where t.id = :id")
+    Boolean findRevokedById(@Param("id") String id);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.familyId in :familyIds")
+    int revokeFamilies(@Param("familyIds") Collection<String> familyIds);
+
+    @Modifying
+    @Query("update RefreshToken t set t.revoked = true where t.username = :username")
+    int revokeUser(@Param("username") String username);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt <= :now")
+    int deleteExpired(@Param("now") long now);
+}
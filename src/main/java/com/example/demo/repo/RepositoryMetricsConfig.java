@@ -0,0 +1,52 @@
+package com.example.demo.repo;
+
+import com.example.demo.filter.ServerTimings;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.AutoTimer;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.MetricsRepositoryMethodInvocationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.data.repository.core.support.RepositoryMethodInvocationListener;
+import org.springframework.util.function.SingletonSupplier;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+
+    /*
+     * Times every repository call as spring.data.repository.invocations, tagged with the repository, the method and
+     * whether it failed. This replaces RepositoryMetricsAutoConfiguration, excluded in application.properties: in
+     * Spring Boot 2.5.0 its post processor needs the MeterRegistry while post processors are still being created, so
+     * the registry is built too early and none of the other meter binders are ever bound to it. Here the registry is
+     * only looked up on the first repository call.
+     *
+     * The same duration is added to the jpa stage of the Server-Timing header when the request is being timed.
+     * */
+    @Bean
+    public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        SingletonSupplier<RepositoryMethodInvocationListener> listener = SingletonSupplier.of(() -> new MetricsRepositoryMethodInvocationListener(
+                meterRegistry.getObject(), new DefaultRepositoryTagsProvider(), "spring.data.repository.invocations", AutoTimer.ENABLED));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                            factory.addInvocationListener(invocation -> {
+                                listener.obtain().afterInvocation(invocation);
+                                ServerTimings.record(ServerTimings.Stage.JPA, invocation.getDuration(TimeUnit.NANOSECONDS));
+                            }));
+                }
+                return bean;
+            }
+        };
+    }
+}
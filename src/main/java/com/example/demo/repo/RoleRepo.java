@@ -2,6 +2,7 @@ package com.example.demo.repo;
 
 import com.example.demo.domain.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * @developed-by : mGunawardhana
@@ -9,4 +10,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
  */
 public interface RoleRepo extends JpaRepository<Role, Long> {
     Role findByName(String name);
+
+    @Query("select coalesce(max(r.ordinal) + 1, 0) from Role r")
+    int findNextOrdinal();
 }
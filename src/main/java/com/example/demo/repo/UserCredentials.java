@@ -0,0 +1,16 @@
+package com.example.demo.repo;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public interface UserCredentials {
+    String getUsername();
+
+    String getPassword();
+
+    /*
+     * One row is returned per role, a user without roles comes back as a single row with a null role name.
+     * */
+    String getRoleName();
+}
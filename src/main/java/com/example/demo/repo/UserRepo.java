@@ -1,11 +1,55 @@
 package com.example.demo.repo;
 
 import com.example.demo.domain.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 /**
  * @developed-by : mGunawardhana
  * @contact : 071-9043372
  */
 public interface UserRepo extends JpaRepository<User, Long> {
+    @EntityGraph(attributePaths = "roles")
     User findByUsername(String username);
+
+    @Query("select u.username as username, u.password as password, r.name as roleName from User u left join u.roles r where u.username = :username")
+    List<UserCredentials> findCredentialsByUsername(@Param("username") String username);
+
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct u from User u left join fetch u.roles order by u.id")
+    List<User> findAllWithRoles();
+
+    @Query("select u.username from User u")
+    Stream<String> streamAllUsernames();
+
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct u from User u left join fetch u.roles where u.username in :usernames")
+    List<User> findAllWithRolesByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    List<String> findUsernamesIn(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.id from User u where u.id > :after order by u.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_PASS_DISTINCT_THROUGH, value = "false"))
+    @Query("select distinct u from User u left join fetch u.roles where u.id in :ids order by u.id")
+    List<User> findAllWithRolesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select u from User u left join fetch u.roles order by u.id")
+    Stream<User> streamAllWithRolesOrderById();
 }
@@ -0,0 +1,177 @@
+package com.example.demo.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class AccessTokenDenylist {
+
+    private final long bucketMillis;
+    private final long expectedRevocationsPerBucket;
+    private final double falsePositiveProbability;
+
+    /*
+     * Revoked token ids are grouped by the "exp" of their token, one bucket per bucketMillis. A token can never expire
+     * later than ACCESS_TOKEN_VALIDITY_MILLIS from now, so the ring only needs enough slots to cover that span and a
+     * slot is reused once every token of its old bucket has expired. Memory is therefore bounded by the revocations
+     * made within one token lifetime.
+     * */
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    /*
+     * Username to the time of the revocation in epoch seconds: every token of that user issued at or before it is
+     * revoked. "iat" only has second precision, so a login within the same second as the revocation is rejected too
+     * and the user simply logs in again. An entry is dropped once all such tokens have expired.
+     * */
+    private final ConcurrentMap<String, Long> revokedSubjects = new ConcurrentHashMap<>();
+
+    private final LongAdder revokedTokens = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
+    private Clock clock = Clock.systemUTC();
+
+    public AccessTokenDenylist(@Value("${jwt.denylist.bucket-seconds:60}") long bucketSeconds,
+                               @Value("${jwt.denylist.expected-revocations-per-bucket:10000}") long expectedRevocationsPerBucket,
+                               @Value("${jwt.denylist.false-positive-probability:0.001}") double falsePositiveProbability) {
+        this.bucketMillis = TimeUnit.SECONDS.toMillis(bucketSeconds);
+        this.expectedRevocationsPerBucket = expectedRevocationsPerBucket;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.buckets = new AtomicReferenceArray<>((int) (TokenService.ACCESS_TOKEN_VALIDITY_MILLIS / bucketMillis) + 2);
+    }
+
+    /*
+     * Runs on every authorized request. The common case, nothing revoked for this user and the token id not in the
+     * Bloom filter of its bucket, is a couple of hash lookups and never touches the exact set.
+     * */
+    public boolean isRevoked(VerifiedToken token) {
+        if (!revokedSubjects.isEmpty()) {
+            Long revokedAt = revokedSubjects.get(token.getSubject());
+            if (revokedAt != null && token.getIssuedAtMillis() / 1000 <= revokedAt) {
+                rejected.increment();
+                return true;
+            }
+        }
+        if (token.getTokenId() == null) {
+            return false;
+        }
+        Bucket bucket = bucket(token.getExpiresAtMillis() / bucketMillis);
+        if (bucket == null || !bucket.filter.mightContain(token.getTokenId())) {
+            return false;
+        }
+        if (bucket.tokenIds.contains(token.getTokenId())) {
+            rejected.increment();
+            return true;
+        }
+        bloomFalsePositives.increment();
+        return false;
+    }
+
+    /*
+     * AccessTokenRenewer gives a renewed token the id of the token it replaces and a later expiry, so the id goes to
+     * every bucket from the expiry of the presented token, or from now when it is not known, up to the latest expiry a
+     * live token can have. Revoking is rare enough for that to be cheaper than tracking the renewals.
+     * */
+    public void revokeToken(String tokenId, Long expiresAtMillis) {
+        long now = clock.millis();
+        long first = Math.max(now, expiresAtMillis != null ? expiresAtMillis : now) / bucketMillis;
+        long last = (now + TokenService.ACCESS_TOKEN_VALIDITY_MILLIS) / bucketMillis;
+        for (long number = first; number <= last; number++) {
+            add(number, tokenId);
+        }
+        revokedTokens.increment();
+        log.info("Access token {} revoked", tokenId);
+    }
+
+    public void revokeSubject(String username) {
+        revokedSubjects.put(username, TimeUnit.MILLISECONDS.toSeconds(clock.millis()));
+        log.info("All access tokens of {} revoked", username);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.denylist.purge-interval-millis:60000}")
+    public void purge() {
+        long expiredBefore = TimeUnit.MILLISECONDS.toSeconds(clock.millis() - TokenService.ACCESS_TOKEN_VALIDITY_MILLIS);
+        revokedSubjects.values().removeIf(revokedAt -> revokedAt < expiredBefore);
+        long current = clock.millis() / bucketMillis;
+        for (int i = 0; i < buckets.length(); i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && bucket.number < current) {
+                buckets.compareAndSet(i, bucket, null);
+            }
+        }
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    private Bucket bucket(long number) {
+        Bucket bucket = buckets.get(slot(number));
+        return bucket != null && bucket.number == number ? bucket : null;
+    }
+
+    private void add(long number, String tokenId) {
+        int slot = slot(number);
+        Bucket bucket = buckets.get(slot);
+        while (bucket == null || bucket.number != number) {
+            Bucket created = new Bucket(number, new BloomFilter(expectedRevocationsPerBucket, falsePositiveProbability));
+            if (buckets.compareAndSet(slot, bucket, created)) {
+                bucket = created;
+            } else {
+                bucket = buckets.get(slot);
+            }
+        }
+        bucket.tokenIds.add(tokenId);
+        bucket.filter.put(tokenId);
+        /*
+         * The exact set is written before the filter, so a reader that sees the id in the filter always finds it in
+         * the set as well.
+         * */
+    }
+
+    private int slot(long number) {
+        return (int) Math.floorMod(number, (long) buckets.length());
+    }
+
+    public long getRevokedTokenCount() {
+        return revokedTokens.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getBloomFalsePositiveCount() {
+        return bloomFalsePositives.sum();
+    }
+
+    public int getRevokedSubjectCount() {
+        return revokedSubjects.size();
+    }
+
+    private static final class Bucket {
+        private final long number;
+        private final BloomFilter filter;
+        private final Set<String> tokenIds = ConcurrentHashMap.newKeySet();
+
+        private Bucket(long number, BloomFilter filter) {
+            this.number = number;
+            this.filter = filter;
+        }
+    }
+}
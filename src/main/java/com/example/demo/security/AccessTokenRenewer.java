@@ -0,0 +1,108 @@
+package com.example.demo.security;
+
+import com.example.demo.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class AccessTokenRenewer {
+
+    public static final String RENEWED_TOKEN_HEADER = "X-Renewed-Access-Token";
+
+    private final TokenService tokenService;
+    private final UserService userService;
+    private final AuthMetrics authMetrics;
+    private final boolean enabled;
+    private final long windowMillis;
+    private final long jitterMillis;
+
+    /*
+     * The token a renewal produced, by the id of the token it replaces. A client sends the old token on every request
+     * until the reply carrying the new one arrives, and all of those get the same new token instead of a new one each.
+     * */
+    private final Cache<String, String> renewed;
+
+    private Clock clock = Clock.systemUTC();
+
+    public AccessTokenRenewer(TokenService tokenService,
+                              UserService userService,
+                              AuthMetrics authMetrics,
+                              @Value("${jwt.renewal.enabled:false}") boolean enabled,
+                              @Value("${jwt.renewal.window-seconds:120}") long windowSeconds,
+                              @Value("${jwt.renewal.jitter-seconds:60}") long jitterSeconds,
+                              @Value("${jwt.renewal.maximum-size:10000}") long maximumSize) {
+        if (jitterSeconds >= windowSeconds) {
+            throw new IllegalArgumentException("jwt.renewal.jitter-seconds has to be shorter than jwt.renewal.window-seconds");
+        }
+        this.tokenService = tokenService;
+        this.userService = userService;
+        this.authMetrics = authMetrics;
+        this.enabled = enabled;
+        this.windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        this.jitterMillis = TimeUnit.SECONDS.toMillis(jitterSeconds);
+        this.renewed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(windowSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /*
+     * Returns a fresh access token when the presented one is close to expiry, or null when it is not, so the client
+     * can switch tokens without ever calling /api/token/refresh.
+     * */
+    public String renew(VerifiedToken verifiedToken, String issuer) {
+        if (!enabled) {
+            return null;
+        }
+        String tokenId = verifiedToken.getTokenId();
+        String renewalKey = tokenId != null ? tokenId + '@' + verifiedToken.getExpiresAtMillis() : verifiedToken.getSubject() + '@' + verifiedToken.getExpiresAtMillis();
+        long remainingMillis = verifiedToken.getExpiresAtMillis() - clock.millis();
+        if (remainingMillis > windowMillis - jitter(renewalKey)) {
+            return null;
+        }
+        /*
+         * Each token renews at its own point inside the window, derived from its id. Tokens issued in the same
+         * second, as they all are when every client logs in again after a deploy, spread their renewals over the
+         * whole jitter instead of coming back in one wave ten minutes later.
+         * */
+        try {
+            return renewed.get(renewalKey, key -> {
+                String username = verifiedToken.getSubject();
+                String accessToken = tokenService.createAccessToken(username, issuer, userService.getRoleNames(username), tokenId != null ? tokenId : UUID.randomUUID().toString());
+                authMetrics.renewed();
+                return accessToken;
+            });
+        } catch (RuntimeException exception) {
+            log.debug("Access token of {} not renewed: {}", verifiedToken.getSubject(), exception.getMessage());
+            return null;
+        }
+        /*
+         * The roles of the new token come from the user cache like a refresh does, so a role that was taken away is
+         * dropped at the next renewal. A user that no longer exists simply gets no renewal and has to log in again.
+         *
+         * The new token keeps the "jti" of the one it replaces, so revoking that id in the AccessTokenDenylist also
+         * revokes every token renewed from it, on any instance. The cache is keyed by id and expiry, which tells the
+         * generations of one id apart.
+         * */
+    }
+
+    void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    long jitter(String renewalKey) {
+        return jitterMillis == 0 ? 0 : (renewalKey.hashCode() & Integer.MAX_VALUE) % jitterMillis;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.filter.ServerTimings;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Component
+@RequiredArgsConstructor
+public class AccessTokenVerifier {
+
+    private final TokenService tokenService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final AuthMetrics authMetrics;
+
+    /*
+     * Verifies an access token the way every request is authorized, for CustomerAuthorizationFilter and for token
+     * introspection alike, so both share one cache of verified tokens and the same revocation check.
+     * */
+    public VerifiedToken verify(String token) throws JWTVerificationException {
+        VerifiedToken verifiedToken = verifiedTokenCache.get(token);
+        if (verifiedToken != null && !tokenService.hasKey(verifiedToken.getKeyId())) {
+            verifiedToken = null;
+        }
+        /*
+         * TokenService.removeKey drops the tokens of the key from the cache, but a verification that was already
+         * running can put one back right after. Checking the key on every hit keeps such an entry from outliving the
+         * key, the token then goes through verify() again and is rejected for its unknown key id.
+         * */
+
+        if (verifiedToken == null) {
+            Timer.Sample sample = authMetrics.start();
+            DecodedJWT decodedJWT;
+            try {
+                decodedJWT = tokenService.verify(token);
+            } catch (JWTVerificationException exception) {
+                authMetrics.accessTokenVerified(sample, exception);
+                throw exception;
+            }
+            authMetrics.accessTokenVerified(sample, null);
+
+            String username = decodedJWT.getSubject();
+
+            Timer.Sample mapping = authMetrics.start();
+            long authoritiesStart = ServerTimings.start();
+            Collection<GrantedAuthority> authorities = tokenService.authorities(decodedJWT);
+            ServerTimings.stop(ServerTimings.Stage.AUTHORITIES, authoritiesStart);
+            authMetrics.authoritiesMapped(mapping);
+            /*
+             * The roles come either as a "roles" array or as an "rb" bitmask of role ordinals, both are turned into one
+             * shared, immutable list of interned authorities per combination of roles instead of a new
+             * SimpleGrantedAuthority per role on every request.
+             * */
+
+            verifiedToken = new VerifiedToken(new UsernamePasswordAuthenticationToken(username, null, authorities), decodedJWT);
+            if (decodedJWT.getExpiresAt() != null) {
+                verifiedTokenCache.put(token, verifiedToken);
+            }
+            /*
+             * Clients send the same access token many times during its lifetime, so the verified result is kept until
+             * the token expires and the signature check is skipped on the next request.
+             * */
+        }
+
+        if (accessTokenDenylist.isRevoked(verifiedToken)) {
+            TokenRevokedException revoked = new TokenRevokedException("Token has been revoked");
+            authMetrics.rejected(AuthMetrics.ACCESS_TOKEN, revoked);
+            throw revoked;
+        }
+        return verifiedToken;
+        /*
+         * Checked on every request, cached or not, since a token can be revoked long after it was first verified. The
+         * check is a Bloom filter lookup and only consults the exact set on a possible hit.
+         * */
+    }
+}
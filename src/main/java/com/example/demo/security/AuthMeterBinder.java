@@ -0,0 +1,83 @@
+package com.example.demo.security;
+
+import com.example.demo.service.impl.UserDetailsCache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Component
+@RequiredArgsConstructor
+public class AuthMeterBinder implements MeterBinder {
+
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final UserDetailsCache userDetailsCache;
+    private final LoginExecutor loginExecutor;
+    private final LoginRateLimiter loginRateLimiter;
+    private final RefreshTokenStore refreshTokenStore;
+    private final AccessTokenDenylist accessTokenDenylist;
+
+    /*
+     * Publishes the counters the components already keep for StatsResource, read when the registry is scraped,
+     * so nothing is added to the request path.
+     * */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCache(registry, "verifiedTokens", verifiedTokenCache::stats);
+        bindCache(registry, "userDetails", userDetailsCache::stats);
+        Gauge.builder("cache.size", userDetailsCache, UserDetailsCache::size).tag("cache", "userDetails").register(registry);
+
+        Gauge.builder("login.executor.queue.depth", loginExecutor, LoginExecutor::getQueueDepth).register(registry);
+        Gauge.builder("login.executor.active", loginExecutor, LoginExecutor::getActiveCount).register(registry);
+        counter(registry, "login.executor.executed", loginExecutor, LoginExecutor::getExecutedCount);
+        counter(registry, "login.executor.rejected", loginExecutor, LoginExecutor::getRejectedCount);
+        counter(registry, "login.executor.expired", loginExecutor, LoginExecutor::getExpiredCount);
+        loginExecutor.setQueueWaitTimer(Timer.builder("login.executor.queue.wait")
+                .description("Time a login spent in the queue before a login thread picked it up")
+                .publishPercentileHistogram()
+                .register(registry));
+        /*
+         * The one meter that is recorded on the request path: the wait distribution is what shows a login burst
+         * building up, which an average read at scrape time hides.
+         * */
+
+        counter(registry, "login.rate_limit.allowed", loginRateLimiter, LoginRateLimiter::getAllowedCount);
+        FunctionCounter.builder("login.rate_limit.rejected", loginRateLimiter, LoginRateLimiter::getRejectedByUsernameCount).tag("key", "username").register(registry);
+        FunctionCounter.builder("login.rate_limit.rejected", loginRateLimiter, LoginRateLimiter::getRejectedByIpCount).tag("key", "ip").register(registry);
+        Gauge.builder("login.rate_limit.tracked_keys", loginRateLimiter, LoginRateLimiter::getTrackedKeys).register(registry);
+
+        counter(registry, "refresh_tokens.issued", refreshTokenStore, RefreshTokenStore::getIssuedCount);
+        counter(registry, "refresh_tokens.rotated", refreshTokenStore, RefreshTokenStore::getRotatedCount);
+        counter(registry, "refresh_tokens.reuse_detected", refreshTokenStore, RefreshTokenStore::getReuseDetectedCount);
+        counter(registry, "refresh_tokens.index_misses", refreshTokenStore, RefreshTokenStore::getIndexMissCount);
+        Gauge.builder("refresh_tokens.indexed", refreshTokenStore, RefreshTokenStore::getIndexedTokens).register(registry);
+        Gauge.builder("refresh_tokens.pending_writes", refreshTokenStore, RefreshTokenStore::getPendingWrites).register(registry);
+        counter(registry, "refresh_tokens.dropped_writes", refreshTokenStore, RefreshTokenStore::getDroppedWriteCount);
+
+        counter(registry, "access_tokens.revoked", accessTokenDenylist, AccessTokenDenylist::getRevokedTokenCount);
+        counter(registry, "access_tokens.denylist.rejected", accessTokenDenylist, AccessTokenDenylist::getRejectedCount);
+        counter(registry, "access_tokens.denylist.bloom_false_positives", accessTokenDenylist, AccessTokenDenylist::getBloomFalsePositiveCount);
+        Gauge.builder("access_tokens.denylist.revoked_subjects", accessTokenDenylist, AccessTokenDenylist::getRevokedSubjectCount).register(registry);
+    }
+
+    private static void bindCache(MeterRegistry registry, String cache, Supplier<CacheStats> stats) {
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().hitCount()).tag("cache", cache).tag("result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", stats, s -> s.get().missCount()).tag("cache", cache).tag("result", "miss").register(registry);
+        FunctionCounter.builder("cache.evictions", stats, s -> s.get().evictionCount()).tag("cache", cache).register(registry);
+    }
+
+    private static <T> void counter(MeterRegistry registry, String name, T source, ToDoubleFunction<T> count) {
+        FunctionCounter.builder(name, source, count).register(registry);
+    }
+}
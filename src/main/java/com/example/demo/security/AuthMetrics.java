@@ -0,0 +1,133 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.exceptions.AlgorithmMismatchException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String SUCCESS = "success";
+
+    public static final String LOGIN = "login";
+    public static final String ACCESS_TOKEN = "access_token";
+    public static final String REFRESH_TOKEN = "refresh_token";
+
+    private final MeterRegistry meterRegistry;
+    private final Timer tokenSign;
+    private final Timer authorities;
+    private final Counter renewals;
+
+    /*
+     * One meter per name and outcome, looked up by a key of both so that recording does not build a new Timer or
+     * Counter on every request.
+     * */
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> failures = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.tokenSign = timer("auth.token.sign", "Signing the access and refresh tokens of a login").register(meterRegistry);
+        this.authorities = timer("auth.token.authorities", "Mapping the roles claim of an access token to authorities").register(meterRegistry);
+        this.renewals = Counter.builder("auth.token.renewals").description("Access tokens renewed ahead of their expiry").register(meterRegistry);
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /*
+     * attemptAuthentication as a whole, loading the user and the BCrypt check included, tagged with whether the user
+     * was unknown or the password was wrong.
+     * */
+    public void login(Timer.Sample sample, Exception failure) {
+        record(sample, "auth.login", "Authenticating a username and password", LOGIN, failure);
+    }
+
+    public void tokenSigned(Timer.Sample sample) {
+        sample.stop(tokenSign);
+    }
+
+    public void accessTokenVerified(Timer.Sample sample, Exception failure) {
+        record(sample, "auth.token.verify", "Verifying the signature and claims of an access token", ACCESS_TOKEN, failure);
+    }
+
+    public void authoritiesMapped(Timer.Sample sample) {
+        sample.stop(authorities);
+    }
+
+    public void refreshed(Timer.Sample sample, Exception failure) {
+        record(sample, "auth.token.refresh", "Rotating a refresh token and issuing a new access token", REFRESH_TOKEN, failure);
+    }
+
+    public void renewed() {
+        renewals.increment();
+    }
+
+    /*
+     * Counts a rejection that is not timed on its own, such as a cached access token that has since been revoked.
+     * */
+    public void rejected(String stage, Exception failure) {
+        failureCounter(stage, cause(failure)).increment();
+    }
+
+    private void record(Timer.Sample sample, String name, String description, String stage, Exception failure) {
+        String outcome = failure == null ? SUCCESS : cause(failure);
+        sample.stop(timers.computeIfAbsent(name + '|' + outcome, key -> timer(name, description).tag("outcome", outcome).register(meterRegistry)));
+        if (failure != null) {
+            failureCounter(stage, outcome).increment();
+        }
+    }
+
+    private Counter failureCounter(String stage, String cause) {
+        return failures.computeIfAbsent(stage + '|' + cause, key -> Counter.builder("auth.failures")
+                .description("Rejected logins and tokens by cause")
+                .tag("stage", stage)
+                .tag("cause", cause)
+                .register(meterRegistry));
+    }
+
+    public static String cause(Throwable failure) {
+        if (failure instanceof TokenExpiredException) {
+            return "expired";
+        }
+        if (failure instanceof SignatureVerificationException || failure instanceof AlgorithmMismatchException) {
+            return "bad_signature";
+        }
+        if (failure instanceof JWTDecodeException) {
+            return "malformed";
+        }
+        if (failure instanceof TokenRevokedException) {
+            return "revoked";
+        }
+        if (failure instanceof UsernameNotFoundException) {
+            return "unknown_user";
+        }
+        if (failure instanceof BadCredentialsException) {
+            return "bad_password";
+        }
+        return "invalid";
+    }
+
+    /*
+     * Percentile histograms are published as Prometheus buckets, so p99 can be computed across instances with
+     * histogram_quantile instead of being fixed per instance.
+     * */
+    private static Timer.Builder timer(String name, String description) {
+        return Timer.builder(name).description(description).publishPercentileHistogram();
+    }
+}
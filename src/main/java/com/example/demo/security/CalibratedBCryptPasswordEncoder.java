@@ -0,0 +1,125 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+public class CalibratedBCryptPasswordEncoder implements PasswordEncoder, MeterBinder {
+
+    private static final Pattern BCRYPT_HASH = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+
+    private final LongAdder matchCount = new LongAdder();
+    private final LongAdder matchNanos = new LongAdder();
+    private final LongAccumulator maxMatchNanos = new LongAccumulator(Math::max, 0);
+    private volatile Timer matchTimer;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+    }
+
+    /*
+     * Picks the highest cost between minStrength and maxStrength whose hash still fits in the target time on this
+     * machine. Every extra cost level doubles the work, so one timed hash at minStrength is enough to estimate the
+     * others.
+     * */
+    public static CalibratedBCryptPasswordEncoder calibrate(long targetMillis, int minStrength, int maxStrength) {
+        new BCryptPasswordEncoder(4).encode("warm-up");
+        long start = System.nanoTime();
+        new BCryptPasswordEncoder(minStrength).encode("calibration");
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+        int strength = minStrength;
+        while (strength < maxStrength && millis * 2 <= targetMillis) {
+            strength++;
+            millis *= 2;
+        }
+        log.info("BCrypt strength calibrated to {} (about {} ms per hash, target {} ms)", strength, Math.round(millis), targetMillis);
+        return new CalibratedBCryptPasswordEncoder(strength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        try {
+            return delegate.matches(rawPassword, encodedPassword);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            matchCount.increment();
+            matchNanos.add(elapsed);
+            maxMatchNanos.accumulate(elapsed);
+            Timer timer = matchTimer;
+            if (timer != null) {
+                timer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /*
+     * Spring Boot binds every MeterBinder bean to the registry at startup. The match time is also kept as a
+     * histogram there, since the average and maximum above cannot tell how slow the slowest one percent of logins is.
+     * */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        matchTimer = Timer.builder("auth.password.match")
+                .description("BCrypt password checks")
+                .publishPercentileHistogram()
+                .register(registry);
+        Gauge.builder("auth.password.strength", this, CalibratedBCryptPasswordEncoder::getStrength)
+                .description("Calibrated BCrypt cost")
+                .register(registry);
+    }
+
+    /*
+     * Only hashes weaker than the calibrated strength are upgraded. Every instance calibrates on its own CPU, so
+     * re-hashing stronger hashes as well would make instances with different targets rewrite the same password back
+     * and forth on every login.
+     * */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_HASH.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public long getMatchCount() {
+        return matchCount.sum();
+    }
+
+    public long getMatchNanos() {
+        return matchNanos.sum();
+    }
+
+    public long getMaxMatchNanos() {
+        return maxMatchNanos.get();
+    }
+}
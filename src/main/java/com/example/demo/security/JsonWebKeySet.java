@@ -0,0 +1,108 @@
+package com.example.demo.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public final class JsonWebKeySet {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final Base64.Encoder BASE64_URL = Base64.getUrlEncoder().withoutPadding();
+
+    private final byte[] json;
+    private final String etag;
+
+    private JsonWebKeySet(byte[] json) {
+        this.json = json;
+        this.etag = "\"" + BASE64_URL.encodeToString(Arrays.copyOf(sha256(json), 16)) + "\"";
+        /*
+         * A digest of the exact bytes that are served is a strong ETag: it only changes when the document does, so
+         * every instance with the same keys answers a conditional request with 304.
+         * */
+    }
+
+    /*
+     * Serializes the public half of every asymmetric key, by key id. HMAC secrets are never published.
+     * */
+    static JsonWebKeySet of(Map<String, PublicKey> publicKeys, Map<String, String> algorithms) {
+        List<Map<String, String>> keys = new ArrayList<>(publicKeys.size());
+        publicKeys.forEach((keyId, publicKey) -> keys.add(toJwk(keyId, publicKey, algorithms.get(keyId))));
+        try {
+            return new JsonWebKeySet(OBJECT_MAPPER.writeValueAsBytes(Map.of("keys", keys)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> toJwk(String keyId, PublicKey publicKey, String algorithm) {
+        Map<String, String> jwk = new LinkedHashMap<>();
+        if (publicKey instanceof RSAPublicKey) {
+            RSAPublicKey rsa = (RSAPublicKey) publicKey;
+            jwk.put("kty", "RSA");
+            jwk.put("n", unsigned(rsa.getModulus(), 0));
+            jwk.put("e", unsigned(rsa.getPublicExponent(), 0));
+        } else {
+            ECPublicKey ec = (ECPublicKey) publicKey;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("x", unsigned(ec.getW().getAffineX(), 32));
+            jwk.put("y", unsigned(ec.getW().getAffineY(), 32));
+        }
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm);
+        jwk.put("kid", keyId);
+        return jwk;
+    }
+
+    /*
+     * JWK integers are unsigned big-endian, BigInteger adds a leading zero byte whenever the top bit is set. EC
+     * coordinates are additionally padded to the full field size.
+     * */
+    private static String unsigned(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length < length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return BASE64_URL.encodeToString(bytes);
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * The serialized document, shared by every response. Callers must not modify it.
+     * */
+    public byte[] getJson() {
+        return json;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.security;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "jwt")
+public class JwtProperties {
+
+    /*
+     * Key id used to sign new tokens, it has to be one of the configured keys.
+     * */
+    private String activeKeyId = TokenService.DEFAULT_KEY_ID;
+
+    /*
+     * Algorithm of new tokens, the active key has to be a key of this algorithm. When it is RS256 or ES256 and
+     * activeKeyId names no configured key, a key pair is generated at startup. A generated key is lost on restart
+     * and differs between instances, so production configures its key pairs under keyPairs.
+     * */
+    private SigningAlgorithm algorithm = SigningAlgorithm.HS256;
+
+    /*
+     * HMAC secrets by key id. Every configured key is accepted for verification, so a retired key can stay here
+     * until the tokens signed with it have expired.
+     * */
+    private Map<String, String> keys = new LinkedHashMap<>();
+
+    /*
+     * RSA (RS256) or P-256 EC (ES256) key pairs by key id, a PKCS#8 private key and an X.509 public key in PEM. The
+     * public keys are published at /.well-known/jwks.json, so other services can verify tokens without a secret.
+     * */
+    private Map<String, KeyPairProperties> keyPairs = new LinkedHashMap<>();
+
+    /*
+     * How long clients may cache the JWKS document. A key that is about to become active should be added at least
+     * this long before it is activated, so every verifier has fetched it by then.
+     * */
+    private long jwksMaxAgeSeconds = 300;
+
+    /*
+     * How new access tokens carry their roles. Both formats are always accepted, so this can be switched to bitmask
+     * once every instance understands it and back again without invalidating any token.
+     * */
+    private RolesClaimFormat rolesClaimFormat = RolesClaimFormat.ARRAY;
+
+    public enum SigningAlgorithm {
+        HS256, RS256, ES256
+    }
+
+    @Data
+    public static class KeyPairProperties {
+        private String privateKey;
+        private String publicKey;
+    }
+
+    public enum RolesClaimFormat {
+        /* "roles": ["ROLE_USER", "ROLE_ADMIN"] */
+        ARRAY,
+        /* "rb": "2.Bw", see RoleCatalog.toBitmask */
+        BITMASK
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.security;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+final class KeyPairs {
+
+    private KeyPairs() {
+    }
+
+    static KeyPair generate(JwtProperties.SigningAlgorithm algorithm) {
+        try {
+            switch (algorithm) {
+                case RS256: {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+                    generator.initialize(2048);
+                    return generator.generateKeyPair();
+                }
+                case ES256: {
+                    KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                    generator.initialize(new ECGenParameterSpec("secp256r1"));
+                    return generator.generateKeyPair();
+                }
+                default:
+                    throw new IllegalArgumentException("Key pairs are only generated for RS256 and ES256, not " + algorithm);
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /*
+     * Reads a PKCS#8 private key and an X.509 public key, either as PEM or as the bare base64 of the DER encoding.
+     * The key type, RSA or EC, is taken from the keys themselves.
+     * */
+    static KeyPair parse(String privateKeyPem, String publicKeyPem) {
+        if (privateKeyPem == null || publicKeyPem == null) {
+            throw new IllegalArgumentException("A key pair needs both a private-key and a public-key");
+        }
+        byte[] privateKey = decode(privateKeyPem);
+        byte[] publicKey = decode(publicKeyPem);
+        for (String type : new String[]{"RSA", "EC"}) {
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance(type);
+                PrivateKey parsedPrivateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(privateKey));
+                PublicKey parsedPublicKey = keyFactory.generatePublic(new X509EncodedKeySpec(publicKey));
+                return new KeyPair(parsedPublicKey, parsedPrivateKey);
+            } catch (GeneralSecurityException e) {
+                /* not a key of this type, try the next one */
+            }
+        }
+        throw new IllegalArgumentException("The key pair is neither an RSA nor an EC key pair");
+    }
+
+    private static byte[] decode(String pem) {
+        return Base64.getMimeDecoder().decode(pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", ""));
+    }
+}
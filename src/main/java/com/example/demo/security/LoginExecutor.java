@@ -0,0 +1,137 @@
+package com.example.demo.security;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+    private final int retryAfterSeconds;
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanosSeen = new LongAccumulator(Math::max, 0);
+    private volatile Timer queueWait;
+
+    public LoginExecutor(@Value("${login.executor.threads:0}") int threads,
+                         @Value("${login.executor.queue-capacity:64}") int queueCapacity,
+                         @Value("${login.executor.max-queue-wait-millis:2000}") long maxQueueWaitMillis,
+                         @Value("${login.executor.retry-after-seconds:1}") int retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new LoginThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMillis);
+        this.retryAfterSeconds = retryAfterSeconds;
+        log.info("Login executor started with {} threads and a queue of {}", poolSize, queueCapacity);
+        /*
+         * BCrypt is pure CPU work, so more threads than cores would only make every login slower. The queue is
+         * bounded and the AbortPolicy rejects instead of blocking, which is what lets a login burst be shed.
+         * */
+    }
+
+    /*
+     * Returns false when the queue is full. A task that waited in the queue longer than max-queue-wait-millis runs
+     * onExpired instead, the client has most likely given up on it already.
+     * */
+    public boolean submit(Runnable task, Runnable onExpired) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long waited = System.nanoTime() - enqueuedAt;
+                queueWaitNanos.add(waited);
+                Timer timer = queueWait;
+                if (timer != null) {
+                    timer.record(waited, TimeUnit.NANOSECONDS);
+                }
+                maxQueueWaitNanosSeen.accumulate(waited);
+                executed.increment();
+                if (waited > maxQueueWaitNanos) {
+                    expired.increment();
+                    onExpired.run();
+                } else {
+                    task.run();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return false;
+        }
+    }
+
+    /*
+     * Set by AuthMeterBinder once the registry exists, every wait is recorded into it from then on.
+     * */
+    public void setQueueWaitTimer(Timer queueWait) {
+        this.queueWait = queueWait;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    public long getQueueWaitNanos() {
+        return queueWaitNanos.sum();
+    }
+
+    public long getMaxQueueWaitNanos() {
+        return maxQueueWaitNanosSeen.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static final class LoginThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "login-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
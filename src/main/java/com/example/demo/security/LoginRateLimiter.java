@@ -0,0 +1,127 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Component
+public class LoginRateLimiter {
+
+    private final Cache<String, TokenBucket> buckets;
+    private final Limit usernameLimit;
+    private final Limit ipLimit;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByUsername = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+
+    public LoginRateLimiter(@Value("${login.rate-limit.username.capacity:5}") int usernameCapacity,
+                            @Value("${login.rate-limit.username.refill-per-minute:5}") int usernameRefillPerMinute,
+                            @Value("${login.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${login.rate-limit.ip.refill-per-minute:20}") int ipRefillPerMinute,
+                            @Value("${login.rate-limit.maximum-keys:100000}") long maximumKeys,
+                            @Value("${login.rate-limit.idle-eviction-minutes:10}") long idleEvictionMinutes) {
+        this.usernameLimit = new Limit(usernameCapacity, usernameRefillPerMinute);
+        this.ipLimit = new Limit(ipCapacity, ipRefillPerMinute);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(idleEvictionMinutes, TimeUnit.MINUTES)
+                .build();
+        /*
+         * The buckets are held in a size bounded cache that also drops idle keys, so spraying random usernames or
+         * addresses can neither grow the map without limit nor make it a single point of contention.
+         * */
+    }
+
+    /*
+     * Returns 0 when the login may go ahead, otherwise the number of seconds until the exhausted bucket has a token.
+     * The address is checked first, so a rejected address does not use up the tokens of the username it targets.
+     * */
+    public long tryAcquire(String username, String ip) {
+        long waitMillis = buckets.get("ip:" + ip, key -> new TokenBucket(ipLimit)).tryConsume();
+        if (waitMillis > 0) {
+            rejectedByIp.increment();
+            return toSeconds(waitMillis);
+        }
+        if (username != null) {
+            waitMillis = buckets.get("user:" + username, key -> new TokenBucket(usernameLimit)).tryConsume();
+            if (waitMillis > 0) {
+                rejectedByUsername.increment();
+                return toSeconds(waitMillis);
+            }
+        }
+        allowed.increment();
+        return 0;
+    }
+
+    public long getAllowedCount() {
+        return allowed.sum();
+    }
+
+    public long getRejectedByUsernameCount() {
+        return rejectedByUsername.sum();
+    }
+
+    public long getRejectedByIpCount() {
+        return rejectedByIp.sum();
+    }
+
+    public long getTrackedKeys() {
+        return buckets.estimatedSize();
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static final class Limit {
+        private final long capacityMicros;
+        private final long microsPerToken;
+
+        private Limit(int capacity, int refillPerMinute) {
+            this.microsPerToken = TimeUnit.MINUTES.toMicros(1) / Math.max(1, refillPerMinute);
+            this.capacityMicros = capacity * microsPerToken;
+        }
+    }
+
+    /*
+     * Lock free token bucket. The state is a single "theoretical arrival time": the bucket is full once the clock has
+     * passed it, and taking a token pushes it forward by one token's worth of refill time, with one compareAndSet.
+     * */
+    private static final class TokenBucket {
+        private final Limit limit;
+        private final AtomicLong tat;
+
+        private TokenBucket(Limit limit) {
+            this.limit = limit;
+            this.tat = new AtomicLong(nowMicros());
+        }
+
+        private long tryConsume() {
+            while (true) {
+                long now = nowMicros();
+                long current = tat.get();
+                long next = Math.max(current, now) + limit.microsPerToken;
+                if (next - now > limit.capacityMicros) {
+                    return (next - now - limit.capacityMicros) / 1000;
+                }
+                if (tat.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private static long nowMicros() {
+            return TimeUnit.NANOSECONDS.toMicros(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.demo.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Configuration
+public class PasswordEncoderConfig {
+
+    @Bean
+    public CalibratedBCryptPasswordEncoder calibratedBCryptPasswordEncoder(@Value("${security.bcrypt.target-millis:100}") long targetMillis,
+                                                                           @Value("${security.bcrypt.min-strength:10}") int minStrength,
+                                                                           @Value("${security.bcrypt.max-strength:14}") int maxStrength) {
+        return CalibratedBCryptPasswordEncoder.calibrate(targetMillis, minStrength, maxStrength);
+    }
+
+    @Bean
+    @Primary
+    public PasswordEncoder passwordEncoder(CalibratedBCryptPasswordEncoder calibratedBCryptPasswordEncoder) {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", calibratedBCryptPasswordEncoder);
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder());
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt", encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(calibratedBCryptPasswordEncoder);
+        return passwordEncoder;
+        /*
+         * New hashes are written as {bcrypt}$2a$<cost>$... with the calibrated cost. Hashes stored before the prefix
+         * existed have no {id} and are checked with the default encoder for matches, and DelegatingPasswordEncoder
+         * reports them, like any hash with another id or a lower cost, as needing an upgrade.
+         * DaoAuthenticationProvider then re-hashes the password after a successful login through
+         * UserServiceImpl.updatePassword.
+         * */
+    }
+}
@@ -0,0 +1,383 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.example.demo.domain.RefreshToken;
+import com.example.demo.repo.RefreshTokenRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private final RefreshTokenRepo refreshTokenRepo;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxFlushAttempts;
+
+    private final ConcurrentMap<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Family> families = new ConcurrentHashMap<>();
+
+    /*
+     * Tokens issued at login that are waiting for the next flush. Issuing only appends here, the row is written by
+     * flush() on the scheduler thread, so a login does not add a database round trip.
+     * */
+    private final Queue<Entry> pendingInserts = new ConcurrentLinkedQueue<>();
+
+    /*
+     * Tokens rotated since the last flush. The rotation itself is decided on the in-memory entry, flush() then marks
+     * the row used with a conditional update that also catches a rotation of the same token on another instance.
+     * */
+    private final Queue<Entry> pendingUses = new ConcurrentLinkedQueue<>();
+
+    /*
+     * Held by flush() and by a revocation that has to write a token still waiting for it, so every row is inserted
+     * exactly once and Entry.persisted is only set after the row has been committed.
+     * */
+    private final Object writeLock = new Object();
+
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder rotated = new LongAdder();
+    private final LongAdder reuseDetected = new LongAdder();
+    private final LongAdder indexMisses = new LongAdder();
+    private final LongAdder droppedWrites = new LongAdder();
+
+    public RefreshTokenStore(RefreshTokenRepo refreshTokenRepo,
+                             EntityManager entityManager,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${refresh-tokens.max-flush-attempts:5}") int maxFlushAttempts) {
+        this.refreshTokenRepo = refreshTokenRepo;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxFlushAttempts = maxFlushAttempts;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        AtomicLong count = new AtomicLong();
+        long now = System.currentTimeMillis();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<RefreshToken> unexpired = refreshTokenRepo.streamUnexpired(now)) {
+                unexpired.forEach(token -> {
+                    index(token);
+                    count.incrementAndGet();
+                });
+            }
+        });
+        log.info("Refresh token index loaded with {} tokens", count.get());
+    }
+
+    /*
+     * Starts a new family for a fresh login and returns the id to put in the "jti" claim of the refresh token.
+     * */
+    public String issue(String username) {
+        Family family = new Family(UUID.randomUUID().toString());
+        families.put(family.id, family);
+        issued.increment();
+        return add(family, username).id;
+    }
+
+    /*
+     * Marks the presented token as used and returns the id of its successor in the same family. A token can only be
+     * rotated once: presenting it again means it was copied, so the whole family is revoked and the legitimate holder
+     * of the newest token has to log in again as well.
+     *
+     * The rotation is decided on the in-memory entry alone, its used flag is flipped with a compare-and-set, so a
+     * refresh adds no database round trip unless the token is missing from the index. The used mark and the successor
+     * are written by the next flush(). Between flushes the instances do not see each other's rotations: a token
+     * rotated on one instance and replayed on another within that window passes there as well, and is caught when the
+     * second flush finds the row already used, which revokes the family. Likewise a successor can only be rotated on
+     * another instance once the instance that issued it has flushed.
+     * */
+    public String rotate(String tokenId, String username) {
+        if (tokenId == null) {
+            throw new JWTVerificationException("Refresh token has no id, please log in again");
+        }
+        Entry entry = find(tokenId);
+        if (entry == null || !entry.username.equals(username) || entry.expiresAtMillis <= System.currentTimeMillis()) {
+            throw new JWTVerificationException("Unknown refresh token");
+        }
+        if (entry.family.revoked) {
+            throw new TokenRevokedException("Refresh token has been revoked");
+        }
+        if (!entry.used.compareAndSet(false, true)) {
+            throw reuseDetected(entry);
+        }
+        Entry next = add(entry.family, username);
+        pendingUses.add(entry);
+        rotated.increment();
+        return next.id;
+    }
+
+    private TokenRevokedException reuseDetected(Entry entry) {
+        revoke(entry.family);
+        reuseDetected.increment();
+        log.warn("Refresh token reuse detected for user {}, token family {} revoked", entry.username, entry.family.id);
+        return new TokenRevokedException("Refresh token has already been used, all tokens of this login have been revoked");
+    }
+
+    /*
+     * Revokes every family of the user, including those only other instances have indexed: the database is updated
+     * by username, and an instance that still has the family as unrevoked finds out when the conditional update in its
+     * next flush() matches nothing.
+     * */
+    public void revokeUser(String username) {
+        writeRevocation(entry -> entry.username.equals(username), () -> refreshTokenRepo.revokeUser(username));
+        log.info("All refresh tokens of {} revoked", username);
+    }
+
+    private Entry add(Family family, String username) {
+        Entry entry = newEntry(family, username);
+        family.extendTo(entry.expiresAtMillis);
+        tokens.put(entry.id, entry);
+        pendingInserts.add(entry);
+        return entry;
+    }
+
+    private Entry newEntry(Family family, String username) {
+        return new Entry(UUID.randomUUID().toString(), family, username, System.currentTimeMillis() + TokenService.REFRESH_TOKEN_VALIDITY_MILLIS);
+    }
+
+    private void revoke(Family family) {
+        writeRevocation(entry -> entry.family == family, () -> refreshTokenRepo.revokeFamilies(List.of(family.id)));
+    }
+
+    /*
+     * The revocation is written before it is applied to the index. Tokens it covers that are still waiting for
+     * flush() are inserted first, so the update reaches them too.
+     * */
+    private void writeRevocation(Predicate<Entry> covered, Runnable update) {
+        List<Entry> revoked = tokens.values().stream().filter(covered).collect(Collectors.toList());
+        synchronized (writeLock) {
+            List<Entry> pending = revoked.stream().filter(entry -> !entry.persisted.get()).collect(Collectors.toList());
+            transactionTemplate.executeWithoutResult(status -> {
+                insert(pending);
+                update.run();
+            });
+            pending.forEach(entry -> entry.persisted.set(true));
+        }
+        revoked.forEach(entry -> entry.family.revoked = true);
+    }
+
+    /*
+     * Rows are always written as unused, a token only becomes used through the conditional update in flush(). Must be
+     * called inside a transaction.
+     * */
+    private void insert(List<Entry> entries) {
+        for (Entry entry : entries) {
+            entityManager.persist(new RefreshToken(entry.id, entry.family.id, entry.username, entry.expiresAtMillis, false, entry.family.revoked));
+        }
+        entityManager.flush();
+    }
+
+    /*
+     * The index holds every unexpired token this instance has issued or loaded, a miss only happens for a token issued
+     * by another instance and is looked up in the database once.
+     * */
+    private Entry find(String tokenId) {
+        Entry entry = tokens.get(tokenId);
+        if (entry == null) {
+            indexMisses.increment();
+            entry = refreshTokenRepo.findById(tokenId).map(this::index).orElse(null);
+        }
+        return entry;
+    }
+
+    private Entry index(RefreshToken token) {
+        Family family = families.computeIfAbsent(token.getFamilyId(), Family::new);
+        family.extendTo(token.getExpiresAt());
+        if (token.isRevoked()) {
+            family.revoked = true;
+        }
+        Entry entry = new Entry(token.getId(), family, token.getUsername(), token.getExpiresAt());
+        entry.used.set(token.isUsed());
+        entry.persisted.set(true);
+        Entry existing = tokens.putIfAbsent(entry.id, entry);
+        return existing != null ? existing : entry;
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-tokens.flush-interval-millis:1000}")
+    public void flush() {
+        List<Entry> uses = drain(pendingUses);
+        List<Entry> inserts = drain(pendingInserts);
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+        List<Entry> conflicts = new ArrayList<>();
+        synchronized (writeLock) {
+            List<Entry> pending = inserts.stream().filter(entry -> !entry.persisted.get()).collect(Collectors.toList());
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    insert(pending);
+                    for (Entry entry : uses) {
+                        if (refreshTokenRepo.markUsedIfUnused(entry.id) != 1) {
+                            conflicts.add(entry);
+                        }
+                    }
+                    refreshTokenRepo.deleteExpired(now);
+                    entityManager.clear();
+                });
+                pending.forEach(entry -> entry.persisted.set(true));
+            } catch (RuntimeException exception) {
+                conflicts.clear();
+                requeue(pending, uses, exception);
+            }
+        }
+        conflicts.forEach(this::resolveConflict);
+        /*
+         * The new tokens go out in JDBC batches before the used marks, so a token issued and rotated within the same
+         * interval is inserted and then marked. Uses are drained before inserts: rotate() queues the successor first,
+         * so every drained use has its successor in this flush or an earlier one. A token revoked before this ran has
+         * already been inserted by that request and is skipped here.
+         * */
+    }
+
+    /*
+     * The used mark of a rotation matched nothing. Either the family was revoked, possibly by another instance, and
+     * is revoked again to cover the successor this instance has just written, or the token was rotated on another
+     * instance as well, which is reuse. A row that is gone has expired or was never written, there is nothing to do.
+     * */
+    private void resolveConflict(Entry entry) {
+        Boolean revoked = refreshTokenRepo.findRevokedById(entry.id);
+        if (revoked == null) {
+            return;
+        }
+        if (revoked) {
+            revoke(entry.family);
+        } else {
+            reuseDetected(entry);
+        }
+    }
+
+    /*
+     * A failed write is retried with the next flushes, but only maxFlushAttempts times: a row the database keeps
+     * rejecting would otherwise be queued again forever and fail every batch it is part of. A dropped token stays
+     * usable on this instance only, a dropped used mark leaves the row unused for the other instances.
+     * */
+    private void requeue(List<Entry> inserts, List<Entry> uses, RuntimeException exception) {
+        int dropped = 0;
+        for (Entry entry : inserts) {
+            if (++entry.insertAttempts < maxFlushAttempts) {
+                pendingInserts.add(entry);
+            } else {
+                dropped++;
+            }
+        }
+        for (Entry entry : uses) {
+            if (++entry.useAttempts < maxFlushAttempts) {
+                pendingUses.add(entry);
+            } else {
+                dropped++;
+            }
+        }
+        droppedWrites.add(dropped);
+        if (dropped > 0) {
+            log.error("Writing refresh tokens failed {} times, {} writes dropped: {}", maxFlushAttempts, dropped, exception.getMessage());
+        } else {
+            log.error("Writing refresh tokens failed, retrying with the next flush: {}", exception.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void purgeExpired(long now) {
+        tokens.values().removeIf(entry -> entry.expiresAtMillis <= now);
+        families.values().removeIf(family -> family.expiresAtMillis <= now);
+    }
+
+    private static <T> List<T> drain(Queue<T> queue) {
+        List<T> drained = new ArrayList<>();
+        for (T value; (value = queue.poll()) != null; ) {
+            drained.add(value);
+        }
+        return drained;
+    }
+
+    public long getIssuedCount() {
+        return issued.sum();
+    }
+
+    public long getRotatedCount() {
+        return rotated.sum();
+    }
+
+    public long getReuseDetectedCount() {
+        return reuseDetected.sum();
+    }
+
+    public long getIndexMissCount() {
+        return indexMisses.sum();
+    }
+
+    public int getIndexedTokens() {
+        return tokens.size();
+    }
+
+    public int getPendingWrites() {
+        return pendingInserts.size() + pendingUses.size();
+    }
+
+    public long getDroppedWriteCount() {
+        return droppedWrites.sum();
+    }
+
+    private static final class Entry {
+        private final String id;
+        private final Family family;
+        private final String username;
+        private final long expiresAtMillis;
+        private final AtomicBoolean used = new AtomicBoolean();
+        private final AtomicBoolean persisted = new AtomicBoolean();
+        private int insertAttempts;
+        private int useAttempts;
+
+        private Entry(String id, Family family, String username, long expiresAtMillis) {
+            this.id = id;
+            this.family = family;
+            this.username = username;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private static final class Family {
+        private final String id;
+        private volatile boolean revoked;
+        private volatile long expiresAtMillis;
+
+        private Family(String id) {
+            this.id = id;
+        }
+
+        private synchronized void extendTo(long expiresAtMillis) {
+            this.expiresAtMillis = Math.max(this.expiresAtMillis, expiresAtMillis);
+        }
+    }
+}
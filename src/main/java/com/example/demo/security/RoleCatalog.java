@@ -0,0 +1,209 @@
+package com.example.demo.security;
+
+import com.example.demo.domain.Role;
+import com.example.demo.repo.RoleRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class RoleCatalog {
+
+    /*
+     * Distinct role combinations are few in practice, the limit only guards against the maps growing without bound
+     * if they are not.
+     * */
+    private static final int MAX_AUTHORITY_SETS = 1024;
+
+    /*
+     * Version 2 of the bitmask sets bit n for the role with ordinal n (Role.ordinal), encoded as unpadded base64url.
+     * Ordinals are dense and never change, so a bitmask stays short and valid on every instance and after restarts.
+     * Roles without an ordinal or with a larger one fall back to the array claim instead of producing a long bitmask.
+     * Version 1 used the role id, its tokens are rejected rather than read with the wrong roles.
+     * */
+    private static final String BITMASK_PREFIX = "2.";
+    private static final int MAX_BITMASK_ORDINAL = 1024;
+    private static final long MIN_REFRESH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final RoleRepo roleRepo;
+    private volatile Snapshot snapshot = new Snapshot(List.of());
+    private volatile long lastRefreshNanos = System.nanoTime() - MIN_REFRESH_INTERVAL_NANOS;
+    private final ConcurrentMap<String, GrantedAuthority> authorities = new ConcurrentHashMap<>();
+    private final ConcurrentMap<List<String>, List<GrantedAuthority>> authoritySets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, List<GrantedAuthority>> authoritySetsByBitmask = new ConcurrentHashMap<>();
+
+    public RoleCatalog(RoleRepo roleRepo) {
+        this.roleRepo = roleRepo;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        snapshot = new Snapshot(roleRepo.findAll());
+        lastRefreshNanos = System.nanoTime();
+        log.info("Role catalog loaded with {} roles", snapshot.byName.size());
+    }
+
+    /*
+     * Called with a role that was just saved. Inside a transaction it is only added once the transaction has
+     * committed, so a rolled back role never becomes visible.
+     * */
+    public void register(Role role) {
+        Role copy = copy(role);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(copy);
+                }
+            });
+        } else {
+            add(copy);
+        }
+    }
+
+    private synchronized void add(Role role) {
+        List<Role> roles = new ArrayList<>(snapshot.byName.values());
+        roles.add(role);
+        snapshot = new Snapshot(roles);
+    }
+
+    /*
+     * Returns a detached Role holding only the id, name and ordinal, which is all a new user_roles row needs, or null
+     * when there is no role with that name.
+     * */
+    public Role findRole(String name) {
+        return snapshot.byName.get(name);
+    }
+
+    public GrantedAuthority authority(String roleName) {
+        GrantedAuthority authority = authorities.get(roleName);
+        return authority != null ? authority : authorities.computeIfAbsent(roleName, SimpleGrantedAuthority::new);
+    }
+
+    public List<GrantedAuthority> authorities(String[] roleNames) {
+        return authorities(Arrays.asList(roleNames));
+    }
+
+    public List<GrantedAuthority> authorities(List<String> roleNames) {
+        List<GrantedAuthority> authoritySet = authoritySets.get(roleNames);
+        if (authoritySet != null) {
+            return authoritySet;
+        }
+        authoritySet = roleNames.stream().map(this::authority).collect(Collectors.toUnmodifiableList());
+        if (authoritySets.size() < MAX_AUTHORITY_SETS) {
+            authoritySets.putIfAbsent(List.copyOf(roleNames), authoritySet);
+        }
+        return authoritySet;
+        /*
+         * Every principal with the same roles shares one immutable list of the same SimpleGrantedAuthority
+         * instances, so building a principal no longer creates authority objects of its own.
+         * */
+    }
+
+    /*
+     * Returns null when a role cannot be expressed in the bitmask, the caller then writes the roles as an array.
+     * */
+    public String toBitmask(Collection<String> roleNames) {
+        BitSet bits = new BitSet();
+        for (String roleName : roleNames) {
+            Role role = findRole(roleName);
+            if (role == null && refreshIfStale()) {
+                role = findRole(roleName);
+            }
+            if (role == null || role.getOrdinal() == null || role.getOrdinal() > MAX_BITMASK_ORDINAL) {
+                return null;
+            }
+            bits.set(role.getOrdinal());
+        }
+        return BITMASK_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(bits.toByteArray());
+    }
+
+    public List<GrantedAuthority> authoritiesFromBitmask(String bitmask) {
+        List<GrantedAuthority> authoritySet = authoritySetsByBitmask.get(bitmask);
+        if (authoritySet != null) {
+            return authoritySet;
+        }
+        if (!bitmask.startsWith(BITMASK_PREFIX)) {
+            throw new IllegalArgumentException("Unsupported roles bitmask version");
+        }
+        BitSet bits = BitSet.valueOf(Base64.getUrlDecoder().decode(bitmask.substring(BITMASK_PREFIX.length())));
+        List<String> roleNames = new ArrayList<>(bits.cardinality());
+        for (int ordinal = bits.nextSetBit(0); ordinal >= 0; ordinal = bits.nextSetBit(ordinal + 1)) {
+            Role role = snapshot.byOrdinal.get(ordinal);
+            if (role == null && refreshIfStale()) {
+                role = snapshot.byOrdinal.get(ordinal);
+            }
+            if (role == null) {
+                throw new IllegalArgumentException("Unknown role ordinal " + ordinal);
+            }
+            roleNames.add(role.getName());
+        }
+        authoritySet = authorities(roleNames);
+        if (authoritySetsByBitmask.size() < MAX_AUTHORITY_SETS) {
+            authoritySetsByBitmask.putIfAbsent(bitmask, authoritySet);
+        }
+        return authoritySet;
+        /*
+         * After the first request the bitmask string itself is the key, so a token is turned into its authority set
+         * with a single map lookup and nothing is decoded or allocated.
+         * */
+    }
+
+    /*
+     * A role saved on another instance is only known here after a refresh. The catalog is reloaded at most once a
+     * second for such a miss, so a burst of tokens with an unknown role cannot turn into a burst of queries.
+     * */
+    private synchronized boolean refreshIfStale() {
+        if (roleRepo == null || System.nanoTime() - lastRefreshNanos < MIN_REFRESH_INTERVAL_NANOS) {
+            return false;
+        }
+        refresh();
+        return true;
+    }
+
+    private static Role copy(Role role) {
+        return new Role(role.getId(), role.getName(), role.getOrdinal());
+    }
+
+    private static final class Snapshot {
+        private final Map<String, Role> byName;
+        private final Map<Integer, Role> byOrdinal;
+
+        private Snapshot(Collection<Role> roles) {
+            Map<String, Role> names = new HashMap<>();
+            Map<Integer, Role> ordinals = new HashMap<>();
+            for (Role role : roles) {
+                Role copy = copy(role);
+                names.putIfAbsent(copy.getName(), copy);
+                if (copy.getOrdinal() != null) {
+                    ordinals.putIfAbsent(copy.getOrdinal(), copy);
+                }
+            }
+            this.byName = Map.copyOf(names);
+            this.byOrdinal = Map.copyOf(ordinals);
+        }
+    }
+}
@@ -2,16 +2,19 @@ package com.example.demo.security;
 
 import com.example.demo.filter.CustomAuthenticationFilter;
 import com.example.demo.filter.CustomerAuthorizationFilter;
+import com.example.demo.filter.LoginRateLimitFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import static org.springframework.http.HttpMethod.GET;
@@ -28,25 +31,43 @@ import static org.springframework.security.config.http.SessionCreationPolicy.STA
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     private final UserDetailsService userDetailsService;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordEncoder passwordEncoder;
+    private final TokenService tokenService;
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final AccessTokenRenewer accessTokenRenewer;
+    private final AuthMetrics authMetrics;
+    private final LoginExecutor loginExecutor;
+    private final LoginRateLimiter loginRateLimiter;
+    private final RefreshTokenStore refreshTokenStore;
 
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(bCryptPasswordEncoder);
+        auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder).withObjectPostProcessor(new ObjectPostProcessor<DaoAuthenticationProvider>() {
+            @Override
+            public <O extends DaoAuthenticationProvider> O postProcess(O provider) {
+                provider.setHideUserNotFoundExceptions(false);
+                return provider;
+            }
+        });
         /*
-         * passwordEncoder(bCryptPasswordEncoder): This configures the AuthenticationManagerBuilder to use the provided
-         * bCryptPasswordEncoder for encoding and verifying passwords during authentication.
+         * An unknown username reaches CustomAuthenticationFilter as UsernameNotFoundException, which only tags the
+         * login metrics with the cause and then answers with the same "Bad credentials" as for a wrong password.
+         * */
+        /*
+         * passwordEncoder(passwordEncoder): This configures the AuthenticationManagerBuilder to use the provided
+         * passwordEncoder for encoding and verifying passwords during authentication. It is a DelegatingPasswordEncoder
+         * whose BCrypt cost is calibrated at startup, see PasswordEncoderConfig.
          *
-         * .passwordEncoder(bCryptPasswordEncoder): This configures the AuthenticationManagerBuilder to use the provided
-         *  bCryptPasswordEncoder for encoding and verifying passwords during authentication.
+         * Because UserServiceImpl also implements UserDetailsPasswordService, the DaoAuthenticationProvider built here
+         * re-hashes the password after a successful login whenever the stored hash has a different format or cost.
          *
          * By setting the user details service and password encoder, you are configuring the authentication mechanism to
-         * use the specified UserDetailsService to load user details and the BCryptPasswordEncoder to hash and verify
+         * use the specified UserDetailsService to load user details and the password encoder to hash and verify
          * passwords.
          *
          * With this configuration, during the authentication process, Spring Security will use the userDetailsService to
          * retrieve the user's details (e.g., username, password, roles) based on the provided username. Then, it will
-         * use the bCryptPasswordEncoder to check if the provided password matches the hashed password stored in the
+         * use the passwordEncoder to check if the provided password matches the hashed password stored in the
          * user's details.
          *
          * Overall, this code snippet sets up the foundation for the authentication process in a Spring Security-enabled
@@ -57,7 +78,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
-        CustomAuthenticationFilter customAuthenticationFilter = new CustomAuthenticationFilter(authenticationManagerBean());
+        CustomAuthenticationFilter customAuthenticationFilter = new CustomAuthenticationFilter(authenticationManagerBean(), tokenService, loginExecutor, refreshTokenStore, authMetrics);
         customAuthenticationFilter.setFilterProcessesUrl("/api/login");
         http.csrf().disable();
 
@@ -79,6 +100,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
          * */
 
         http.authorizeRequests().antMatchers("/api/login/**", "/api/token/refresh/**").permitAll();
+        http.authorizeRequests().antMatchers(GET, "/.well-known/jwks.json").permitAll();
+        http.authorizeRequests().antMatchers("/actuator/health/**").permitAll();
+        http.authorizeRequests().antMatchers("/actuator/prometheus").hasAnyAuthority("ROLE_ADMIN");
+        /*
+         * Health checks come without a token. The metrics show login volume, rejected logins and token reuse, so the
+         * Prometheus scrape needs an admin token like any other admin endpoint. Only these two actuator endpoints are
+         * exposed.
+         * */
         /*
          * antMatchers("/api/login/**", "/api/token/refresh/**"): This specifies the Ant-style pattern(s) for the URL(s)
          * to which the following authorization rule will apply.
@@ -94,7 +123,15 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
          * */
 
         http.authorizeRequests().antMatchers(GET, "/api/user/**").hasAnyAuthority("ROLE_USER");
+        http.authorizeRequests().antMatchers("/api/admin/**").hasAnyAuthority("ROLE_SUPER_ADMIN");
         http.authorizeRequests().antMatchers(POST, "/api/user/save/**").hasAnyAuthority("ROLE_ADMIN");
+        http.authorizeRequests().antMatchers(POST, "/api/users/import").hasAnyAuthority("ROLE_ADMIN");
+        http.authorizeRequests().antMatchers(POST, "/api/role/addtouser/**", "/api/role/addtousers").hasAnyAuthority("ROLE_ADMIN");
+        /*
+         * An import creates users and grants them any role, so it needs the same authority as /api/user/save. So do
+         * the role grants, one at a time or in a batch: otherwise any user could grant themselves ROLE_SUPER_ADMIN and
+         * with it /api/admin/**.
+         * */
 
         http.authorizeRequests().anyRequest().authenticated();
         /*
@@ -116,6 +153,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
          * */
 
         http.addFilter(customAuthenticationFilter);
+        http.addFilterBefore(new LoginRateLimitFilter(loginRateLimiter), UsernamePasswordAuthenticationFilter.class);
         /*
          * addFilter(customAuthenticationFilter): This method is used to add a custom authentication filter
          * (customAuthenticationFilter) to the filter chain. The filter will be executed when processing incoming
@@ -129,7 +167,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
          *
          * */
 
-        http.addFilterBefore(new CustomerAuthorizationFilter(), UsernamePasswordAuthenticationFilter.class);
+        http.addFilterBefore(new CustomerAuthorizationFilter(accessTokenVerifier, accessTokenRenewer), UsernamePasswordAuthenticationFilter.class);
         /*
          * http: This refers to the HttpSecurity object, which is part of Spring Security's configuration DSL
          * (Domain-Specific Language). It is used to configure various security aspects of your application.
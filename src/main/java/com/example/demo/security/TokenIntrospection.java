@@ -0,0 +1,41 @@
+package com.example.demo.security;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TokenIntrospection {
+
+    /*
+     * Position of the token in the request. Results are written as soon as they are ready, not in request order.
+     * */
+    private final int index;
+    private final boolean active;
+    private String sub;
+    private List<String> roles;
+    private Long exp;
+    private String error;
+
+    static TokenIntrospection active(int index, VerifiedToken verifiedToken) {
+        TokenIntrospection introspection = new TokenIntrospection(index, true);
+        introspection.setSub(verifiedToken.getSubject());
+        introspection.setRoles(verifiedToken.getAuthentication().getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList()));
+        introspection.setExp(verifiedToken.getExpiresAtMillis() / 1000);
+        return introspection;
+    }
+
+    static TokenIntrospection inactive(int index, Throwable failure) {
+        TokenIntrospection introspection = new TokenIntrospection(index, false);
+        introspection.setError(AuthMetrics.cause(failure));
+        return introspection;
+    }
+}
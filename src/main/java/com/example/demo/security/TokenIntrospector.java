@@ -0,0 +1,109 @@
+package com.example.demo.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class TokenIntrospector {
+
+    private final AccessTokenVerifier accessTokenVerifier;
+    private final ThreadPoolExecutor executor;
+    private final int maxBatchSize;
+
+    public TokenIntrospector(AccessTokenVerifier accessTokenVerifier,
+                             @Value("${tokens.introspection.threads:0}") int threads,
+                             @Value("${tokens.introspection.queue-capacity:1000}") int queueCapacity,
+                             @Value("${tokens.introspection.max-batch-size:100}") int maxBatchSize) {
+        this.accessTokenVerifier = accessTokenVerifier;
+        this.maxBatchSize = maxBatchSize;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new IntrospectionThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+        /*
+         * When the queue is full the request thread verifies the token itself, so a burst of batches slows the
+         * gateways that send them down instead of queueing without bound.
+         * */
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /*
+     * Verifies the tokens in parallel and hands every result to the consumer, on the calling thread, in the order
+     * they complete. A slow or invalid token delays only its own result.
+     * */
+    public void introspect(List<String> tokens, Consumer<TokenIntrospection> consumer) throws InterruptedException {
+        if (tokens.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " tokens can be introspected at once");
+        }
+        CompletionService<TokenIntrospection> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<TokenIntrospection>, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < tokens.size(); i++) {
+            int index = i;
+            String token = tokens.get(i);
+            indexes.put(completionService.submit(() -> introspect(index, token)), index);
+        }
+        for (int i = 0; i < tokens.size(); i++) {
+            Future<TokenIntrospection> result = completionService.take();
+            try {
+                consumer.accept(result.get());
+            } catch (ExecutionException exception) {
+                consumer.accept(TokenIntrospection.inactive(indexes.get(result), exception.getCause()));
+            }
+        }
+        /*
+         * Every token gets its line, a failure is reported as that token being inactive instead of ending the stream
+         * and losing the results of the tokens still being verified.
+         * */
+    }
+
+    private TokenIntrospection introspect(int index, String token) {
+        try {
+            return TokenIntrospection.active(index, accessTokenVerifier.verify(token));
+        } catch (RuntimeException exception) {
+            return TokenIntrospection.inactive(index, exception);
+        }
+        /*
+         * Besides an invalid signature or an expired token this catches a roles bitmask naming an unknown role and a
+         * token that is not an access token at all. None of them can be used, all of them are reported as inactive.
+         * */
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class IntrospectionThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "token-introspection-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.security;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public final class TokenResponseWriter {
+
+    /*
+     * The field names are encoded once. The order matches what Jackson wrote for the HashMap that used to hold the
+     * tokens, so the response body stays byte for byte the same.
+     * */
+    private static final byte[] ACCESS_TOKEN_PREFIX = "{\"access_token\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REFRESH_TOKEN_PREFIX = ",\"refresh_token\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERROR_MESSAGE_PREFIX = "{\"error_message\":".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private TokenResponseWriter() {
+    }
+
+    public static void writeTokens(HttpServletResponse response, String accessToken, String refreshToken) throws IOException {
+        write(response, tokensBody(accessToken, refreshToken));
+    }
+
+    public static void writeError(HttpServletResponse response, String errorMessage) throws IOException {
+        write(response, errorBody(errorMessage));
+    }
+
+    public static byte[] tokensBody(String accessToken, String refreshToken) {
+        byte[] body = new byte[ACCESS_TOKEN_PREFIX.length + encodedLength(accessToken) + REFRESH_TOKEN_PREFIX.length + encodedLength(refreshToken) + 1];
+        int position = copy(ACCESS_TOKEN_PREFIX, body, 0);
+        position = encode(accessToken, body, position);
+        position = copy(REFRESH_TOKEN_PREFIX, body, position);
+        position = encode(refreshToken, body, position);
+        body[position] = '}';
+        return body;
+    }
+
+    public static byte[] errorBody(String errorMessage) {
+        byte[] body = new byte[ERROR_MESSAGE_PREFIX.length + encodedLength(errorMessage) + 1];
+        int position = copy(ERROR_MESSAGE_PREFIX, body, 0);
+        position = encode(errorMessage, body, position);
+        body[position] = '}';
+        return body;
+    }
+
+    private static void write(HttpServletResponse response, byte[] body) throws IOException {
+        response.setContentType(APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.getOutputStream().flush();
+    }
+
+    private static int copy(byte[] source, byte[] target, int position) {
+        System.arraycopy(source, 0, target, position, source.length);
+        return position + source.length;
+    }
+
+    /*
+     * Length of the value as a quoted JSON string in UTF-8, escaped the way Jackson escapes it by default.
+     * */
+    private static int encodedLength(String value) {
+        if (value == null) {
+            return NULL.length;
+        }
+        int length = 2;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += escapeLength(c);
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isSurrogate(c)) {
+                length += 6;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int encode(String value, byte[] target, int position) {
+        if (value == null) {
+            return copy(NULL, target, position);
+        }
+        target[position++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                position = writeAscii(c, target, position);
+            } else if (c < 0x800) {
+                target[position++] = (byte) (0xC0 | (c >> 6));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                /* Jackson writes every surrogate as its own six character escape instead of a four byte sequence. */
+                position = writeUnicodeEscape(c, target, position);
+            } else {
+                target[position++] = (byte) (0xE0 | (c >> 12));
+                target[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                target[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        target[position++] = '"';
+        return position;
+    }
+
+    private static int escapeLength(char c) {
+        if (c == '"' || c == '\\' || c == '\b' || c == '\t' || c == '\n' || c == '\f' || c == '\r') {
+            return 2;
+        }
+        return c < 0x20 ? 6 : 1;
+    }
+
+    private static int writeAscii(char c, byte[] target, int position) {
+        switch (c) {
+            case '"':
+            case '\\':
+                target[position++] = '\\';
+                target[position++] = (byte) c;
+                return position;
+            case '\b':
+                return writeShortEscape('b', target, position);
+            case '\t':
+                return writeShortEscape('t', target, position);
+            case '\n':
+                return writeShortEscape('n', target, position);
+            case '\f':
+                return writeShortEscape('f', target, position);
+            case '\r':
+                return writeShortEscape('r', target, position);
+            default:
+                if (c < 0x20) {
+                    return writeUnicodeEscape(c, target, position);
+                }
+                target[position++] = (byte) c;
+                return position;
+        }
+    }
+
+    private static int writeUnicodeEscape(char c, byte[] target, int position) {
+        target[position++] = '\\';
+        target[position++] = 'u';
+        target[position++] = HEX[c >> 12];
+        target[position++] = HEX[(c >> 8) & 0xF];
+        target[position++] = HEX[(c >> 4) & 0xF];
+        target[position++] = HEX[c & 0xF];
+        return position;
+    }
+
+    private static int writeShortEscape(char escape, byte[] target, int position) {
+        target[position++] = '\\';
+        target[position++] = (byte) escape;
+        return position;
+    }
+}
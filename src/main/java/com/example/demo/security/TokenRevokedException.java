@@ -0,0 +1,14 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public class TokenRevokedException extends JWTVerificationException {
+
+    public TokenRevokedException(String message) {
+        super(message);
+    }
+}
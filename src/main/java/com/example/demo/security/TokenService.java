@@ -0,0 +1,301 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.filter.ServerTimings;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class TokenService {
+
+    public static final long ACCESS_TOKEN_VALIDITY_MILLIS = 10 * 60 * 1000;
+    public static final long REFRESH_TOKEN_VALIDITY_MILLIS = 30 * 60 * 1000;
+
+    /*
+     * Tokens issued before key ids were introduced carry no "kid" header, they are verified with this key id.
+     * */
+    public static final String DEFAULT_KEY_ID = "default";
+
+    public static final String ROLES_CLAIM = "roles";
+    public static final String ROLES_BITMASK_CLAIM = "rb";
+
+    private final ConcurrentMap<String, SigningKey> keys = new ConcurrentHashMap<>();
+    private volatile SigningKey activeKey;
+    private final RoleCatalog roleCatalog;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final JwtProperties.SigningAlgorithm signingAlgorithm;
+    private final boolean bitmaskRoles;
+
+    private volatile JsonWebKeySet jsonWebKeySet = JsonWebKeySet.of(Map.of(), Map.of());
+
+    public TokenService(JwtProperties properties, RoleCatalog roleCatalog, VerifiedTokenCache verifiedTokenCache) {
+        this.roleCatalog = roleCatalog;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.signingAlgorithm = properties.getAlgorithm();
+        this.bitmaskRoles = properties.getRolesClaimFormat() == JwtProperties.RolesClaimFormat.BITMASK;
+        properties.getKeys().forEach(this::addKey);
+        properties.getKeyPairs().forEach((keyId, keyPair) -> addKeyPair(keyId, KeyPairs.parse(keyPair.getPrivateKey(), keyPair.getPublicKey())));
+        String activeKeyId = properties.getActiveKeyId();
+        if (!keys.containsKey(activeKeyId) && properties.getAlgorithm() != JwtProperties.SigningAlgorithm.HS256) {
+            log.warn("No key pair configured for key id {}, generating an {} key pair that will not survive a restart", activeKeyId, properties.getAlgorithm());
+            addKeyPair(activeKeyId, KeyPairs.generate(properties.getAlgorithm()));
+        }
+        KeyChange activation = activateKey(activeKeyId);
+        if (activation != KeyChange.DONE) {
+            throw new IllegalStateException("Key " + activeKeyId + " cannot be activated: " + activation.getMessage());
+        }
+    }
+
+    public String createAccessToken(String username, String issuer, List<String> roles) {
+        return createAccessToken(username, issuer, roles, UUID.randomUUID().toString());
+    }
+
+    /*
+     * A renewed token is given the id of the token it replaces, see AccessTokenRenewer.
+     * */
+    public String createAccessToken(String username, String issuer, List<String> roles, String tokenId) {
+        SigningKey key = activeKey;
+        long now = System.currentTimeMillis();
+        JWTCreator.Builder builder = JWT.create().withKeyId(key.keyId).withJWTId(tokenId).withSubject(username).withIssuedAt(new Date(now)).withExpiresAt(new Date(now + ACCESS_TOKEN_VALIDITY_MILLIS)).withIssuer(issuer);
+        String bitmask = bitmaskRoles ? roleCatalog.toBitmask(roles) : null;
+        if (bitmask != null) {
+            builder.withClaim(ROLES_BITMASK_CLAIM, bitmask);
+        } else {
+            builder.withClaim(ROLES_CLAIM, roles);
+        }
+        return builder.sign(key.algorithm);
+    }
+
+    /*
+     * Reads whichever roles claim the token carries, the bitmask when present and the array otherwise, as the shared
+     * authority set of the RoleCatalog.
+     * */
+    public List<GrantedAuthority> authorities(DecodedJWT decodedJWT) {
+        Claim bitmask = decodedJWT.getClaim(ROLES_BITMASK_CLAIM);
+        if (!bitmask.isMissing() && !bitmask.isNull()) {
+            return roleCatalog.authoritiesFromBitmask(bitmask.asString());
+        }
+        String[] roles = decodedJWT.getClaim(ROLES_CLAIM).asArray(String.class);
+        if (roles == null) {
+            throw new JWTVerificationException("Token carries no roles, it is not an access token");
+        }
+        return roleCatalog.authorities(roles);
+        /*
+         * A refresh token is signed with the same key but has neither claim, it must not pass as an access token.
+         * */
+    }
+
+    /*
+     * The token id comes from RefreshTokenStore, which tracks every refresh token so it can be rotated and revoked.
+     * */
+    public String createRefreshToken(String username, String issuer, String tokenId) {
+        SigningKey key = activeKey;
+        return JWT.create().withKeyId(key.keyId).withJWTId(tokenId).withSubject(username).withExpiresAt(new Date(System.currentTimeMillis() + REFRESH_TOKEN_VALIDITY_MILLIS)).withIssuer(issuer).sign(key.algorithm);
+    }
+
+    public DecodedJWT verify(String token) throws JWTVerificationException {
+        long parseStart = ServerTimings.start();
+        DecodedJWT decodedJWT = JWT.decode(token);
+        ServerTimings.stop(ServerTimings.Stage.PARSE, parseStart);
+        String keyId = decodedJWT.getKeyId() != null ? decodedJWT.getKeyId() : DEFAULT_KEY_ID;
+        SigningKey key = keys.get(keyId);
+        if (key == null) {
+            throw new JWTVerificationException("Unknown key id: " + keyId);
+        }
+        long verifyStart = ServerTimings.start();
+        try {
+            return key.verifier.verify(decodedJWT);
+        } finally {
+            ServerTimings.stop(ServerTimings.Stage.VERIFY, verifyStart);
+        }
+        /*
+         * The "kid" header selects the verifier with a single map lookup, so tokens signed with a key that is being
+         * rotated out stay valid until they expire while new tokens are already signed with the active key.
+         * */
+    }
+
+    /*
+     * A key id always stands for the same key. Replacing the key behind an id would leave tokens signed with the old
+     * key unverifiable, or the active key signing with a secret its verifier no longer has, so a new key needs a new
+     * id and the old one is removed once its tokens have expired.
+     * */
+    public synchronized boolean addKey(String keyId, String secret) {
+        if (keys.containsKey(keyId)) {
+            return false;
+        }
+        keys.put(keyId, SigningKey.hmac(keyId, secret));
+        publishKeys();
+        log.info("Signing key {} added", keyId);
+        return true;
+    }
+
+    /*
+     * Returns false without adding anything when the key id is already in use.
+     * */
+    public synchronized boolean addKeyPair(String keyId, KeyPair keyPair) {
+        if (keys.containsKey(keyId)) {
+            return false;
+        }
+        SigningKey key = SigningKey.asymmetric(keyId, keyPair);
+        keys.put(keyId, key);
+        publishKeys();
+        log.info("{} signing key {} added", key.signingAlgorithm, keyId);
+        return true;
+    }
+
+    public boolean generateKeyPair(String keyId, JwtProperties.SigningAlgorithm algorithm) {
+        return addKeyPair(keyId, KeyPairs.generate(algorithm));
+    }
+
+    /*
+     * Only a key of jwt.algorithm can become active: verifiers elsewhere are configured for that algorithm and would
+     * reject tokens signed with any other.
+     * */
+    public synchronized KeyChange activateKey(String keyId) {
+        SigningKey key = keys.get(keyId);
+        if (key == null) {
+            return KeyChange.UNKNOWN_KEY;
+        }
+        if (key.signingAlgorithm != signingAlgorithm) {
+            return KeyChange.WRONG_ALGORITHM;
+        }
+        activeKey = key;
+        log.info("Signing key {} is now active", keyId);
+        return KeyChange.DONE;
+    }
+
+    public synchronized KeyChange removeKey(String keyId) {
+        if (activeKey.keyId.equals(keyId)) {
+            return KeyChange.ACTIVE_KEY;
+        }
+        if (keys.remove(keyId) == null) {
+            return KeyChange.UNKNOWN_KEY;
+        }
+        publishKeys();
+        verifiedTokenCache.invalidateKey(keyId);
+        log.info("Signing key {} removed", keyId);
+        return KeyChange.DONE;
+        /*
+         * Tokens of the removed key that were verified before are dropped from the cache as well, otherwise they would
+         * keep being accepted without a signature check until they expire.
+         * */
+    }
+
+    public JwtProperties.SigningAlgorithm getSigningAlgorithm() {
+        return signingAlgorithm;
+    }
+
+    public boolean hasKey(String keyId) {
+        return keys.containsKey(keyId);
+    }
+
+    public String getActiveKeyId() {
+        return activeKey.keyId;
+    }
+
+    public Set<String> getKeyIds() {
+        return keys.keySet();
+    }
+
+    public JsonWebKeySet getJsonWebKeySet() {
+        return jsonWebKeySet;
+    }
+
+    /*
+     * The JWKS document is serialized here, once for every change of the keys, and served as the same bytes to every
+     * request until the next change.
+     * */
+    private void publishKeys() {
+        Map<String, PublicKey> publicKeys = new TreeMap<>();
+        Map<String, String> algorithms = new TreeMap<>();
+        for (SigningKey key : keys.values()) {
+            if (key.publicKey != null) {
+                publicKeys.put(key.keyId, key.publicKey);
+                algorithms.put(key.keyId, key.signingAlgorithm.name());
+            }
+        }
+        jsonWebKeySet = JsonWebKeySet.of(publicKeys, algorithms);
+    }
+
+    public enum KeyChange {
+        DONE("done"),
+        UNKNOWN_KEY("unknown key id"),
+        ACTIVE_KEY("the active signing key cannot be removed"),
+        WRONG_ALGORITHM("the key is not a key of jwt.algorithm");
+
+        private final String message;
+
+        KeyChange(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private static final class SigningKey {
+        private final String keyId;
+        private final JwtProperties.SigningAlgorithm signingAlgorithm;
+        private final Algorithm algorithm;
+        private final JWTVerifier verifier;
+        private final PublicKey publicKey;
+
+        private SigningKey(String keyId, JwtProperties.SigningAlgorithm signingAlgorithm, Algorithm algorithm, PublicKey publicKey) {
+            this.keyId = keyId;
+            this.signingAlgorithm = signingAlgorithm;
+            this.algorithm = algorithm;
+            this.verifier = JWT.require(algorithm).build();
+            this.publicKey = publicKey;
+            /*
+             * Algorithm and JWTVerifier are immutable and thread safe, so they are built once per key and shared by
+             * every request instead of being created again for each token. Each verifier only accepts the algorithm
+             * of its own key, so a token cannot pass an RSA public key off as an HMAC secret.
+             * */
+        }
+
+        private static SigningKey hmac(String keyId, String secret) {
+            return new SigningKey(keyId, JwtProperties.SigningAlgorithm.HS256, Algorithm.HMAC256(secret.getBytes(StandardCharsets.UTF_8)), null);
+        }
+
+        private static SigningKey asymmetric(String keyId, KeyPair keyPair) {
+            if (keyPair.getPublic() instanceof RSAPublicKey) {
+                return new SigningKey(keyId, JwtProperties.SigningAlgorithm.RS256,
+                        Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate()), keyPair.getPublic());
+            }
+            if (keyPair.getPublic() instanceof ECPublicKey && ((ECPublicKey) keyPair.getPublic()).getParams().getCurve().getField().getFieldSize() == 256) {
+                return new SigningKey(keyId, JwtProperties.SigningAlgorithm.ES256,
+                        Algorithm.ECDSA256((ECPublicKey) keyPair.getPublic(), (ECPrivateKey) keyPair.getPrivate()), keyPair.getPublic());
+            }
+            throw new IllegalArgumentException("Key " + keyId + " is neither an RSA nor a P-256 EC key pair");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public final class VerifiedToken {
+
+    private final UsernamePasswordAuthenticationToken authentication;
+    private final String tokenId;
+    private final String keyId;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+
+    public VerifiedToken(UsernamePasswordAuthenticationToken authentication, DecodedJWT decodedJWT) {
+        this.authentication = authentication;
+        this.tokenId = decodedJWT.getId();
+        this.keyId = decodedJWT.getKeyId() != null ? decodedJWT.getKeyId() : TokenService.DEFAULT_KEY_ID;
+        this.expiresAtMillis = decodedJWT.getExpiresAt() != null ? decodedJWT.getExpiresAt().getTime() : Long.MAX_VALUE;
+        this.issuedAtMillis = decodedJWT.getIssuedAt() != null ? decodedJWT.getIssuedAt().getTime() : expiresAtMillis - TokenService.ACCESS_TOKEN_VALIDITY_MILLIS;
+        /*
+         * Tokens issued before the "jti" and "iat" claims were added have neither. Their issue time is derived from
+         * the expiry, they can only be revoked by subject.
+         * */
+    }
+
+    public UsernamePasswordAuthenticationToken getAuthentication() {
+        return authentication;
+    }
+
+    public String getSubject() {
+        return authentication.getName();
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getKeyId() {
+        return keyId;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
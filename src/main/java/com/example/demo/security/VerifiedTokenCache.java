@@ -0,0 +1,117 @@
+package com.example.demo.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Component
+public class VerifiedTokenCache {
+
+    /*
+     * MessageDigest instances are not thread safe, so every request thread keeps its own SHA-256 digest instead of
+     * creating a new one for each lookup.
+     * */
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.verified-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .recordStats()
+                .build();
+        /*
+         * The cache is keyed by a digest of the raw token, so the tokens themselves are never held in memory, and
+         * every entry is evicted no later than the "exp" claim of the token it was built from.
+         * */
+    }
+
+    public VerifiedToken get(String token) {
+        VerifiedToken verifiedToken = cache.getIfPresent(digest(token));
+        if (verifiedToken == null) {
+            return null;
+        }
+        if (verifiedToken.getExpiresAtMillis() <= System.currentTimeMillis()) {
+            /* Caffeine expiry is lazy, so an entry can be seen for a moment after the token itself has expired. */
+            return null;
+        }
+        return verifiedToken;
+        /*
+         * The entry keeps the "jti", "iat" and "exp" of the token next to the authentication, so a token revoked
+         * after it was cached can still be checked against the AccessTokenDenylist without decoding it again.
+         * */
+    }
+
+    public void put(String token, VerifiedToken verifiedToken) {
+        if (verifiedToken.getExpiresAtMillis() > System.currentTimeMillis()) {
+            cache.put(digest(token), verifiedToken);
+        }
+    }
+
+    /*
+     * Walks the whole cache, which is fine for something as rare as removing a signing key.
+     * */
+    public void invalidateKey(String keyId) {
+        cache.asMap().values().removeIf(verifiedToken -> verifiedToken.getKeyId().equals(keyId));
+    }
+
+    public long hitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long missCount() {
+        return cache.stats().missCount();
+    }
+
+    public long evictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static final class ExpireAtTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken entry, long currentTime) {
+            long remainingMillis = entry.getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo.service;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Data
+public class RoleGrantResult {
+    private int granted;
+    private int alreadyGranted;
+    private List<String> unknownUsernames = new ArrayList<>();
+    private List<String> unknownRoles = new ArrayList<>();
+}
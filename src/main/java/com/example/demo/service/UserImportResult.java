@@ -0,0 +1,41 @@
+package com.example.demo.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Data
+public class UserImportResult {
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    /*
+     * Every failed row is counted, but only the first maxReportedErrors are listed so that a completely broken file
+     * does not produce a response as large as the file itself.
+     * */
+    public void addImported(long count) {
+        imported += count;
+    }
+
+    public void addError(UserImportRow row, String message, int maxReportedErrors) {
+        failed++;
+        if (errors.size() < maxReportedErrors) {
+            errors.add(new RowError(row.getLine(), row.getUsername(), message));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String username;
+        private String message;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Data
+@JsonIgnoreProperties(value = {"line", "error"}, allowGetters = true)
+public class UserImportRow {
+    private long line;
+    private String name;
+    private String username;
+    private String password;
+    private List<String> roles = new ArrayList<>();
+
+    /*
+     * Set by the reader when the line could not be parsed, the row is then reported as failed without being imported.
+     * */
+    private String error;
+}
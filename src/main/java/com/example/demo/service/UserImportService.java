@@ -0,0 +1,15 @@
+package com.example.demo.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+
+@Service
+public interface UserImportService {
+    UserImportResult importUsers(Iterator<UserImportRow> rows);
+}
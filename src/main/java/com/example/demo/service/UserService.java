@@ -5,6 +5,9 @@ import com.example.demo.domain.User;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * @developed-by : mGunawardhana
@@ -19,7 +22,15 @@ public interface UserService {
 
     void addRoleToUser(String username, String roleName);
 
+    RoleGrantResult addRolesToUsers(Map<String, Set<String>> roleNamesByUsername);
+
     User getUser(String username);
 
+    List<String> getRoleNames(String username);
+
     List<User> getUsers();
+
+    List<User> getUsersAfter(Long afterId, int limit);
+
+    void streamUsers(Consumer<User> consumer);
 }
@@ -0,0 +1,175 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.domain.DatasetRevision;
+import com.example.demo.repo.DatasetRevisionRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class DatasetVersion {
+
+    private static final String USERS = "users";
+
+    private final DatasetRevisionRepo datasetRevisionRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate incrementTemplate;
+    private final long refreshNanos;
+
+    /*
+     * Set by every commit that changed users or roles and cleared by the thread that increments the revision for it.
+     * Commits that land while an increment is running share the next one, so concurrent writers on this instance
+     * do not queue up on the row lock one increment each.
+     * */
+    private final AtomicBoolean incrementPending = new AtomicBoolean();
+    private final ReentrantLock incrementLock = new ReentrantLock();
+
+    private volatile long cached;
+    private volatile long cachedAtNanos;
+    private volatile boolean stale = true;
+
+    public DatasetVersion(DatasetRevisionRepo datasetRevisionRepo,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${users.version.refresh-millis:1000}") long refreshMillis) {
+        this.datasetRevisionRepo = datasetRevisionRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.incrementTemplate = new TransactionTemplate(transactionManager);
+        this.incrementTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+    }
+
+    /*
+     * The first instance to start creates the row, seeded with the time so that an ETag handed out before the table
+     * was recreated never matches a version after it.
+     * */
+    @PostConstruct
+    public void init() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!datasetRevisionRepo.existsById(USERS)) {
+                    datasetRevisionRepo.saveAndFlush(new DatasetRevision(USERS, System.currentTimeMillis()));
+                }
+            });
+        } catch (DataIntegrityViolationException exception) {
+            log.debug("Dataset revision row was created by another instance");
+        }
+    }
+
+    /*
+     * The version lives in the database, so every instance hands out the same ETag for the same data. It is read at
+     * most once per refresh interval and kept in between, which is what lets a repeat poll be answered without any
+     * query. A change committed on this instance is seen by the next poll here; one committed on another instance
+     * may take up to users.version.refresh-millis to show, until then a poll can still get a 304 for it.
+     * */
+    public long current() {
+        if (stale || System.nanoTime() - cachedAtNanos >= refreshNanos) {
+            refresh(false);
+        }
+        return cached;
+    }
+
+    /*
+     * Reads the revision from the database now instead of waiting out the refresh interval, and keeps it for the
+     * polls that follow.
+     * */
+    public long latest() {
+        refresh(true);
+        return cached;
+    }
+
+    private synchronized void refresh(boolean force) {
+        if (!force && !stale && System.nanoTime() - cachedAtNanos < refreshNanos) {
+            return;
+        }
+        stale = false;
+        long readAt = System.nanoTime();
+        Long revision = transactionTemplate.execute(status -> datasetRevisionRepo.findRevision(USERS));
+        /* Not a read-only transaction, so with a replica configured the version still comes from the primary. */
+        cached = revision != null ? revision : 0L;
+        cachedAtNanos = readAt;
+        /*
+         * stale is cleared before the read: a commit that lands during it sets it again, so the next poll reads once
+         * more instead of keeping a version from before that commit.
+         * */
+    }
+
+    /*
+     * A weak ETag: two responses with the same version carry the same users and roles, but they are not promised to
+     * be byte for byte identical.
+     * */
+    public String etag() {
+        return etag(current());
+    }
+
+    /*
+     * Called when users or roles are changed. Inside a transaction the revision is incremented once, after that
+     * transaction has committed and in a short transaction of its own, so the row is never locked while the write
+     * itself is still open. Outside of one it is incremented right away. Until the increment lands a poll may still
+     * get the old version for the new data, the next poll after it sees the change.
+     * */
+    public void bump() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(DatasetVersion.this);
+            }
+        });
+    }
+
+    /*
+     * Whoever holds the lock keeps incrementing while commits keep asking for it, everyone else only leaves the
+     * request behind. The loop re-checks after unlocking, so a request made just as the holder was leaving is not
+     * lost.
+     * */
+    private void increment() {
+        incrementPending.set(true);
+        while (incrementPending.get() && incrementLock.tryLock()) {
+            try {
+                while (incrementPending.getAndSet(false)) {
+                    try {
+                        incrementTemplate.executeWithoutResult(status -> datasetRevisionRepo.increment(USERS));
+                    } catch (RuntimeException exception) {
+                        log.error("Incrementing the users revision failed, polls keep the old version until the next change: {}",
+                                exception.getMessage());
+                    }
+                    stale = true;
+                }
+            } finally {
+                incrementLock.unlock();
+            }
+        }
+    }
+
+    public static String etag(long version) {
+        return "W/\"" + version + "\"";
+    }
+}
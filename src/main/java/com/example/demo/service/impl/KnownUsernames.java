@@ -0,0 +1,176 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.repo.UserRepo;
+import com.example.demo.security.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Component
+public class KnownUsernames {
+
+    private final UserRepo userRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final DatasetVersion datasetVersion;
+    private final long expectedInsertions;
+    private final double falsePositiveProbability;
+    private final long minReseedIntervalNanos;
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter reseeding;
+    private volatile boolean seeded;
+
+    /*
+     * The users revision of DatasetVersion the filter was filled at, and the latest one sync() has seen. While they
+     * differ users were saved somewhere since the filter was filled, possibly on another instance, and a miss is not
+     * trusted.
+     * */
+    private volatile long seededRevision = -1;
+    private volatile long latestRevision;
+    private volatile long seededAtNanos;
+
+    /*
+     * Usernames the database has confirmed to be unknown, so that asking for the same one again does not spend
+     * another lookup.
+     * */
+    private final Cache<String, Boolean> confirmedUnknown;
+
+    private final LongAdder fallbackLookups = new LongAdder();
+
+    public KnownUsernames(UserRepo userRepo,
+                          PlatformTransactionManager transactionManager,
+                          DatasetVersion datasetVersion,
+                          @Value("${users.bloom.expected-insertions:1000000}") long expectedInsertions,
+                          @Value("${users.bloom.false-positive-probability:0.01}") double falsePositiveProbability,
+                          @Value("${users.bloom.min-reseed-interval-millis:10000}") long minReseedIntervalMillis,
+                          @Value("${users.bloom.unknown-cache-seconds:60}") long unknownCacheSeconds) {
+        this.userRepo = userRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.datasetVersion = datasetVersion;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.minReseedIntervalNanos = TimeUnit.MILLISECONDS.toNanos(minReseedIntervalMillis);
+        this.usernames = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        this.confirmedUnknown = Caffeine.newBuilder()
+                .maximumSize(Math.max(1000, expectedInsertions / 10))
+                .expireAfterWrite(unknownCacheSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /*
+     * The filter is rebuilt from the database at startup, whenever sync() finds that users have changed and at the
+     * latest every reseed interval, which also forgets the deleted ones. Usernames added while the new filter is being
+     * filled go into both filters, so none is lost by the swap.
+     * */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${users.bloom.reseed-interval-millis:600000}", fixedDelayString = "${users.bloom.reseed-interval-millis:600000}")
+    public synchronized void seed() {
+        long revision = datasetVersion.latest();
+        /* Read before the usernames, so a user saved during the read leaves the filter behind and is read again. */
+        BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        reseeding = next;
+        AtomicLong count = new AtomicLong();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> all = userRepo.streamAllUsernames()) {
+                    all.forEach(username -> {
+                        next.put(username);
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            usernames = next;
+        } finally {
+            reseeding = null;
+        }
+        seededRevision = revision;
+        latestRevision = Math.max(latestRevision, revision);
+        seededAtNanos = System.nanoTime();
+        seeded = true;
+        log.info("Known usernames filter seeded with {} usernames", count.get());
+    }
+
+    /*
+     * Every user write on any instance bumps the users revision, so checking it is enough to learn that the filter
+     * is behind. The filter is then refilled, but not more often than the minimum reseed interval: under a steady
+     * stream of writes misses are looked up in the database instead.
+     * */
+    @Scheduled(initialDelayString = "${users.bloom.sync-interval-millis:1000}", fixedDelayString = "${users.bloom.sync-interval-millis:1000}")
+    public void sync() {
+        long revision = datasetVersion.latest();
+        latestRevision = Math.max(latestRevision, revision);
+        if (revision != seededRevision && System.nanoTime() - seededAtNanos >= minReseedIntervalNanos) {
+            seed();
+        }
+    }
+
+    public void add(String username) {
+        usernames.put(username);
+        BloomFilter next = reseeding;
+        if (next != null) {
+            next.put(username);
+        }
+        confirmedUnknown.invalidate(username);
+    }
+
+    /*
+     * Called when the database did not find a username this filter let through.
+     * */
+    public void confirmUnknown(String username) {
+        if (username != null) {
+            confirmedUnknown.put(username, Boolean.TRUE);
+        }
+    }
+
+    /*
+     * Until the filter has been seeded every username has to be treated as possibly known, otherwise logins that
+     * arrive while the application is starting would be rejected.
+     *
+     * A miss is only trusted while the filter is current, that is while no user has been saved anywhere since it was
+     * filled. Otherwise the username is looked up in the database, unless that lookup found nothing a moment ago, so
+     * a user saved on another instance can log in here once sync() has seen the write, before the filter is refilled.
+     * The lookups are not capped here: a cap shared by all clients would let a spray of random usernames use it up and
+     * lock new users out, the login rate limits in front of this bound them per address and per username instead.
+     * */
+    public boolean isDefinitelyUnknown(String username) {
+        if (!seeded) {
+            return false;
+        }
+        if (username == null) {
+            return true;
+        }
+        if (usernames.mightContain(username)) {
+            return false;
+        }
+        if (confirmedUnknown.getIfPresent(username) != null) {
+            return true;
+        }
+        if (latestRevision != seededRevision) {
+            fallbackLookups.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public long getFallbackLookupCount() {
+        return fallbackLookups.sum();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.service.impl;
+
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class UnknownUsernameException extends UsernameNotFoundException {
+
+    UnknownUsernameException(String message) {
+        super(message);
+    }
+
+    /*
+     * Thrown for every login with a username that does not exist, which is most of a credential stuffing run, and
+     * the stack trace would never be looked at.
+     * */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
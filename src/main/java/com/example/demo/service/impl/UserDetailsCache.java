@@ -0,0 +1,94 @@
+package com.example.demo.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, CachedUser> cache;
+
+    public UserDetailsCache(@Value("${users.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${users.cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public CachedUser get(String username, Function<String, CachedUser> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(username);
+                }
+            });
+            /*
+             * A login running next to the write can load the old row before the transaction commits and put it back,
+             * so the username is evicted again once the transaction is done.
+             * */
+        }
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    /*
+     * Only this immutable snapshot is cached. Spring Security erases the password of the UserDetails it authenticated,
+     * so every caller gets its own copy from toUserDetails().
+     * */
+    public static final class CachedUser {
+        private final String username;
+        private final String password;
+        private final List<String> roleNames;
+        private final Collection<GrantedAuthority> authorities;
+
+        public CachedUser(String username, String password, List<String> roleNames, Collection<GrantedAuthority> authorities) {
+            this.username = username;
+            this.password = password;
+            this.roleNames = List.copyOf(roleNames);
+            this.authorities = authorities;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public List<String> getRoleNames() {
+            return roleNames;
+        }
+
+        public UserDetails toUserDetails() {
+            return new User(username, password, authorities);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.domain.Role;
+import com.example.demo.domain.User;
+import com.example.demo.repo.UserRepo;
+import com.example.demo.security.RoleCatalog;
+import com.example.demo.service.UserImportResult;
+import com.example.demo.service.UserImportRow;
+import com.example.demo.service.UserImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private final UserRepo userRepo;
+    private final RoleCatalog roleCatalog;
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final KnownUsernames knownUsernames;
+    private final DatasetVersion datasetVersion;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService hashingExecutor;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public UserImportServiceImpl(UserRepo userRepo,
+                                 RoleCatalog roleCatalog,
+                                 PasswordEncoder passwordEncoder,
+                                 UserDetailsCache userDetailsCache,
+                                 KnownUsernames knownUsernames,
+                                 DatasetVersion datasetVersion,
+                                 EntityManager entityManager,
+                                 TransactionTemplate transactionTemplate,
+                                 @Value("${users.import.chunk-size:500}") int chunkSize,
+                                 @Value("${users.import.hashing-threads:0}") int hashingThreads,
+                                 @Value("${users.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.userRepo = userRepo;
+        this.roleCatalog = roleCatalog;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsCache = userDetailsCache;
+        this.knownUsernames = knownUsernames;
+        this.datasetVersion = datasetVersion;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.hashingExecutor = Executors.newFixedThreadPool(hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors(), new ImportThreadFactory());
+        /*
+         * Hashing has its own pool rather than sharing LoginExecutor, so a large import can never fill the login
+         * queue and get interactive logins shed.
+         * */
+    }
+
+    @Override
+    public UserImportResult importUsers(Iterator<UserImportRow> rows) {
+        Set<String> seen = new HashSet<>();
+        UserImportResult result = new UserImportResult();
+        List<UserImportRow> chunk = new ArrayList<>(chunkSize);
+        while (rows.hasNext()) {
+            UserImportRow row = rows.next();
+            String error = validate(row, seen);
+            if (error != null) {
+                result.addError(row, error, maxReportedErrors);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, result);
+        }
+        log.info("Imported {} users, {} rows failed", result.getImported(), result.getFailed());
+        return result;
+        /*
+         * Rows are read, hashed and written one chunk at a time, so memory only ever holds a single chunk however
+         * large the upload is, and every chunk is its own transaction.
+         * */
+    }
+
+    private String validate(UserImportRow row, Set<String> seen) {
+        if (row.getError() != null) {
+            return row.getError();
+        }
+        if (row.getUsername() == null || row.getUsername().isBlank()) {
+            return "username is required";
+        }
+        if (row.getPassword() == null || row.getPassword().isEmpty()) {
+            return "password is required";
+        }
+        if (row.getRoles() == null) {
+            return "roles must be a list";
+        }
+        for (String roleName : row.getRoles()) {
+            if (roleName == null) {
+                return "role names must not be null";
+            }
+            if (roleCatalog.findRole(roleName) == null) {
+                return "unknown role " + roleName;
+            }
+        }
+        if (!seen.add(row.getUsername())) {
+            return "duplicate username in the import";
+        }
+        return null;
+    }
+
+    private void importChunk(List<UserImportRow> chunk, UserImportResult result) {
+        Set<String> existing = new HashSet<>(userRepo.findUsernamesIn(chunk.stream().map(UserImportRow::getUsername).collect(Collectors.toList())));
+        List<UserImportRow> fresh = new ArrayList<>(chunk.size());
+        for (UserImportRow row : chunk) {
+            if (existing.contains(row.getUsername())) {
+                result.addError(row, "username already exists", maxReportedErrors);
+            } else {
+                fresh.add(row);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        List<String> passwords = hashPasswords(fresh);
+        List<UserImportRow> imported;
+        try {
+            persist(fresh, passwords);
+            imported = fresh;
+        } catch (DataAccessException | PersistenceException exception) {
+            log.warn("Import of a chunk of {} users failed, importing its rows one by one: {}", fresh.size(), exception.getMessage());
+            imported = persistOneByOne(fresh, passwords, result);
+        }
+        result.addImported(imported.size());
+        for (UserImportRow row : imported) {
+            knownUsernames.add(row.getUsername());
+            userDetailsCache.evict(row.getUsername());
+        }
+        if (!imported.isEmpty()) {
+            datasetVersion.bump();
+        }
+    }
+
+    /*
+     * The flush runs on the shared EntityManager, whose exceptions are not translated, so a bad value (one too long
+     * for its column, say) arrives as a PersistenceException rather than a DataAccessException.
+     *
+     * A failed chunk is written again row by row, so that a single bad row is reported on its own instead of failing
+     * the rows around it.
+     * */
+    private List<UserImportRow> persistOneByOne(List<UserImportRow> rows, List<String> passwords, UserImportResult result) {
+        List<UserImportRow> imported = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            UserImportRow row = rows.get(i);
+            try {
+                persist(List.of(row), List.of(passwords.get(i)));
+                imported.add(row);
+            } catch (DataAccessException | PersistenceException exception) {
+                result.addError(row, NestedExceptionUtils.getMostSpecificCause(exception).getMessage(), maxReportedErrors);
+            }
+        }
+        return imported;
+    }
+
+    private void persist(List<UserImportRow> rows, List<String> passwords) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < rows.size(); i++) {
+                UserImportRow row = rows.get(i);
+                Set<Role> roles = new HashSet<>();
+                for (String roleName : row.getRoles()) {
+                    roles.add(roleCatalog.findRole(roleName));
+                }
+                entityManager.persist(new User(null, row.getName(), row.getUsername(), passwords.get(i), roles, null));
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        /*
+         * Ids come from a pooled sequence, so persist does not go to the database for each user, and the inserts
+         * are sent in JDBC batches of hibernate.jdbc.batch_size when the chunk is flushed. Clearing afterwards keeps
+         * the persistence context from growing with every chunk.
+         * */
+    }
+
+    private List<String> hashPasswords(List<UserImportRow> rows) {
+        List<Future<String>> futures = new ArrayList<>(rows.size());
+        for (UserImportRow row : rows) {
+            futures.add(hashingExecutor.submit(() -> passwordEncoder.encode(row.getPassword())));
+        }
+        List<String> passwords = new ArrayList<>(rows.size());
+        try {
+            for (Future<String> future : futures) {
+                passwords.add(future.get());
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("Interrupted while hashing imported passwords", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException("Hashing an imported password failed", exception.getCause());
+        }
+        return passwords;
+        /*
+         * BCrypt is by far the slowest part of an import, the passwords of a chunk are hashed on every core at once
+         * while the request thread waits for them in order.
+         * */
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdownNow();
+    }
+
+    private static final class ImportThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "user-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -2,22 +2,42 @@ package com.example.demo.service.impl;
 
 import com.example.demo.domain.Role;
 import com.example.demo.domain.User;
+import com.example.demo.repo.ReadWriteRoutingDataSource;
 import com.example.demo.repo.RoleRepo;
+import com.example.demo.repo.UserCredentials;
 import com.example.demo.repo.UserRepo;
+import com.example.demo.security.RoleCatalog;
+import com.example.demo.service.RoleGrantResult;
 import com.example.demo.service.UserService;
+import com.example.demo.service.impl.UserDetailsCache.CachedUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
 
-import javax.transaction.Transactional;
-import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * @developed-by : mGunawardhana
@@ -28,60 +48,270 @@ import java.util.List;
 @RequiredArgsConstructor
 @Transactional
 @Slf4j
-public class UserServiceImpl implements UserService, UserDetailsService {
+public class UserServiceImpl implements UserService, UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepo userRepo;
     private final RoleRepo roleRepo;
     private final PasswordEncoder passwordEncoder;
+    private final UserDetailsCache userDetailsCache;
+    private final KnownUsernames knownUsernames;
+    private final RoleCatalog roleCatalog;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final DatasetVersion datasetVersion;
+
+    @Value("${users.max-conflict-attempts:10}")
+    private int maxConflictAttempts;
 
+    /*
+     * The read paths run in read-only transactions. Hibernate then skips the dirty check and flush at commit, and
+     * with a replica configured (ReadWriteRoutingDataSourceConfig) their queries go to the replica pool, so logins
+     * never take a connection from the primary. A replica lags behind the primary, a user saved a moment ago may not
+     * be found there yet. The user list reads further down are the exception, they stay on the primary.
+     * */
     @Override
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepo.findByUsername(username);
-        if (user == null) {
-            log.error("user not found in the database!");
-            throw new UsernameNotFoundException("user not found in the database!");
-        } else {
-            log.info("user found in the database: {}", username);
+        return getCachedUser(username).toUserDetails();
+    }
+
+    private CachedUser getCachedUser(String username) {
+        if (knownUsernames.isDefinitelyUnknown(username)) {
+            log.debug("user {} rejected by the known usernames filter", username);
+            throw new UnknownUsernameException("user not found in the database!");
+            /*
+             * DaoAuthenticationProvider still runs a BCrypt comparison against a dummy hash when this is thrown, so a
+             * rejected username takes as long as a wrong password and the timing does not reveal which users exist.
+             * */
+        }
+        CachedUser cachedUser = userDetailsCache.get(username, this::loadCachedUser);
+        if (cachedUser == null) {
+            knownUsernames.confirmUnknown(username);
+            log.debug("user {} not found in the database", username);
+            throw new UnknownUsernameException("user not found in the database!");
         }
-        Collection<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        return cachedUser;
+    }
 
-        user.getRoles().forEach(role -> {
-            authorities.add(new SimpleGrantedAuthority(role.getName()));
-        });
+    private CachedUser loadCachedUser(String username) {
+        List<UserCredentials> rows = userRepo.findCredentialsByUsername(username);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        log.info("user found in the database: {}", username);
+        knownUsernames.add(username);
+        UserCredentials first = rows.get(0);
+        List<String> roleNames = rows.stream().map(UserCredentials::getRoleName).filter(Objects::nonNull).collect(Collectors.toList());
+        return new CachedUser(first.getUsername(), first.getPassword(), roleNames, roleCatalog.authorities(roleNames));
+        /*
+         * Username, password hash and role names come back from a single join, without loading the User entity or
+         * its roles collection.
+         * */
+    }
 
-        return new org.springframework.security.core.userdetails.User(user.getUsername(), user.getPassword(), authorities);
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        log.info("Re-hashing the password of user {}", userDetails.getUsername());
+        User user = userRepo.findByUsername(userDetails.getUsername());
+        user.setPassword(newPassword);
+        userDetailsCache.evict(user.getUsername());
+        return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
+        /*
+         * A re-hash keeps the same password under a new hash, so unlike the other writes it leaves the DatasetVersion
+         * alone and a login never takes the lock on its row. A cached user list may show the old hash until the next
+         * real change.
+         * */
     }
 
     @Override
     public User saveUser(User user) {
         log.info("Saving new user {} to the database", user.getName());
         user.setPassword(passwordEncoder.encode(user.getPassword()));
+        userDetailsCache.evict(user.getUsername());
+        knownUsernames.add(user.getUsername());
+        datasetVersion.bump();
         return userRepo.save(user);
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Role saveRole(Role role) {
         log.info("Saving new role {} to the database", role.getName());
-        return roleRepo.save(role);
+        return retryOn(DataIntegrityViolationException.class, () -> {
+            Role saved = roleRepo.saveAndFlush(new Role(null, role.getName(), roleRepo.findNextOrdinal()));
+            roleCatalog.register(saved);
+            datasetVersion.bump();
+            return saved;
+        });
+        /*
+         * The ordinal is one past the highest one taken. Two instances saving a role at the same moment pick the same
+         * ordinal, the unique constraint fails the second insert and it is retried with the next one. An ordinal sent
+         * by the client is ignored.
+         * */
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void addRoleToUser(String username, String roleName) {
         log.info("Saving role {} to user {}", roleName, username);
-        User user = userRepo.findByUsername(username);
-        Role role = roleRepo.findByName(roleName);
-        user.getRoles().add(role);
+        retryOnConflict(() -> {
+            User user = userRepo.findByUsername(username);
+            Role role = requireRole(roleName);
+            user.getRoles().add(role);
+            userDetailsCache.evict(username);
+            datasetVersion.bump();
+            return null;
+        });
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public RoleGrantResult addRolesToUsers(Map<String, Set<String>> roleNamesByUsername) {
+        log.info("Saving roles to {} users", roleNamesByUsername.size());
+        return retryOnConflict(() -> {
+            RoleGrantResult result = new RoleGrantResult();
+            Map<String, User> users = userRepo.findAllWithRolesByUsernameIn(roleNamesByUsername.keySet()).stream()
+                    .collect(Collectors.toMap(User::getUsername, Function.identity()));
+            roleNamesByUsername.values().stream().flatMap(Set::stream).distinct()
+                    .filter(roleName -> roleCatalog.findRole(roleName) == null).sorted().forEach(result.getUnknownRoles()::add);
+
+            roleNamesByUsername.forEach((username, grants) -> {
+                User user = users.get(username);
+                if (user == null) {
+                    result.getUnknownUsernames().add(username);
+                    return;
+                }
+                boolean changed = false;
+                for (String roleName : grants) {
+                    Role role = roleCatalog.findRole(roleName);
+                    if (role == null) {
+                        continue;
+                    }
+                    if (user.getRoles().add(role)) {
+                        result.setGranted(result.getGranted() + 1);
+                        changed = true;
+                    } else {
+                        result.setAlreadyGranted(result.getAlreadyGranted() + 1);
+                    }
+                }
+                if (changed) {
+                    userDetailsCache.evict(username);
+                    datasetVersion.bump();
+                }
+            });
+            return result;
+        });
+        /*
+         * One IN query loads every user with the roles they already have, the roles come from the RoleCatalog. The
+         * new user_roles rows and the version bumps are then flushed together at commit in JDBC batches, and only
+         * the users that actually gained a role are evicted from the cache.
+         * */
+    }
+
+    private Role requireRole(String roleName) {
+        Role role = roleCatalog.findRole(roleName);
+        if (role == null) {
+            throw new IllegalArgumentException("Unknown role " + roleName);
+        }
+        return role;
+        /*
+         * Roles come from the in-memory RoleCatalog instead of a findByName query per grant. The detached Role only
+         * carries the id, which is all Hibernate needs to insert the user_roles row.
+         * */
+    }
+
+    /*
+     * Adding a role bumps the @Version of the user, so of two concurrent grants to the same user one fails at commit
+     * instead of silently losing the other. The losing grant is retried in a fresh transaction, which is why the
+     * methods using this run without a surrounding transaction of their own. A short random pause between attempts
+     * keeps the retrying requests from colliding with each other again.
+     * */
+    private <T> T retryOnConflict(Supplier<T> work) {
+        return retryOn(OptimisticLockingFailureException.class, work);
+    }
+
+    private <T> T retryOn(Class<? extends RuntimeException> conflict, Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (RuntimeException exception) {
+                if (!conflict.isInstance(exception)) {
+                    throw exception;
+                }
+                if (attempt >= maxConflictAttempts) {
+                    throw exception;
+                }
+                log.warn("Concurrent update detected, retrying (attempt {} of {})", attempt + 1, maxConflictAttempts);
+                backOff(attempt);
+            }
+        }
+    }
+
+    private static void backOff(int attempt) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 10L * attempt + 1));
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying a concurrent update", exception);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public User getUser(String username) {
         log.info("fetching user {}", username);
         return userRepo.findByUsername(username);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<String> getRoleNames(String username) {
+        return getCachedUser(username).getRoleNames();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<User> getUsers() {
         log.info("Fetching all users!");
-        return userRepo.findAll();
+        return ReadWriteRoutingDataSource.readFromPrimary(userRepo::findAllWithRoles);
+        /*
+         * The user list, its pages and its stream are served with the ETag of DatasetVersion, so they are read from
+         * the primary like the version itself, see ReadWriteRoutingDataSource.readFromPrimary.
+         * */
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> getUsersAfter(Long afterId, int limit) {
+        log.info("Fetching {} users after id {}", limit, afterId);
+        return ReadWriteRoutingDataSource.readFromPrimary(() -> {
+            List<Long> ids = userRepo.findIdsAfter(afterId == null ? 0L : afterId, PageRequest.of(0, limit));
+            return ids.isEmpty() ? List.<User>of() : userRepo.findAllWithRolesByIdIn(ids);
+        });
+        /*
+         * Keyset pagination: "where id > :afterId order by id limit :limit" seeks straight to the next page through
+         * the primary key index, so a late page costs the same as the first one, unlike an offset. The ids are
+         * selected first because a limit cannot be applied in SQL to a query that fetch joins a collection, the
+         * second query then loads those users with their roles in one statement.
+         * */
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUsers(Consumer<User> consumer) {
+        log.info("Streaming all users!");
+        ReadWriteRoutingDataSource.readFromPrimary(() -> {
+            try (Stream<User> users = userRepo.streamAllWithRolesOrderById()) {
+                users.forEach(user -> {
+                    consumer.accept(user);
+                    entityManager.detach(user);
+                });
+            }
+            return null;
+        });
+        /*
+         * Every user is detached once it has been written, so the persistence context does not keep a reference to
+         * each row read so far and memory stays flat however many users there are.
+         * */
     }
 }
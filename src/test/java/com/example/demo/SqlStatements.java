@@ -0,0 +1,42 @@
+package com.example.demo;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Records every SQL statement Hibernate prepares, registered through hibernate.session_factory.statement_inspector
+ * in application-test.properties. Statements are kept per thread, for counting what a single call runs, and for all
+ * threads together, for calls served by the web container.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+public class SqlStatements implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> ON_THREAD = ThreadLocal.withInitial(ArrayList::new);
+    private static final Queue<String> ALL = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public String inspect(String sql) {
+        ON_THREAD.get().add(sql);
+        ALL.add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        ON_THREAD.get().clear();
+        ALL.clear();
+    }
+
+    public static List<String> onThisThread() {
+        return List.copyOf(ON_THREAD.get());
+    }
+
+    public static List<String> all() {
+        return List.copyOf(ALL);
+    }
+}
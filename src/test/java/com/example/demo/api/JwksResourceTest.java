@@ -0,0 +1,114 @@
+package com.example.demo.api;
+
+import com.example.demo.domain.User;
+import com.example.demo.service.UserService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Signs with a generated RS256 key, so the JWKS has something to publish from the start.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "jwt.algorithm=RS256",
+        "jwt.active-key-id=rsa-1"
+})
+@ActiveProfiles("test")
+class JwksResourceTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void everyVerificationKeyIsListedWithItsKeyIdAndAlgorithm() throws Exception {
+        String keyId = "ec-" + UUID.randomUUID();
+        HttpHeaders admin = superAdmin();
+        assertThat(generate(admin, keyId, "ES256").getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        Map<String, JsonNode> keys = keys(restTemplate.getForEntity("/.well-known/jwks.json", String.class).getBody());
+
+        assertThat(keys.get("rsa-1").get("alg").asText()).isEqualTo("RS256");
+        assertThat(keys.get("rsa-1").get("kty").asText()).isEqualTo("RSA");
+        assertThat(keys.get(keyId).get("alg").asText()).isEqualTo("ES256");
+        assertThat(keys.get(keyId).get("kty").asText()).isEqualTo("EC");
+        assertThat(keys.get(keyId).get("crv").asText()).isEqualTo("P-256");
+        assertThat(keys.values()).allMatch(key -> key.get("use").asText().equals("sig") && !key.has("k"));
+        remove(admin, keyId);
+    }
+
+    @Test
+    void cachedDocumentChangesWhenTheKeysRotate() throws Exception {
+        HttpHeaders admin = superAdmin();
+        ResponseEntity<String> before = restTemplate.getForEntity("/.well-known/jwks.json", String.class);
+        String etag = before.getHeaders().getETag();
+        assertThat(before.getHeaders().getCacheControl()).contains("max-age");
+        assertThat(get(etag).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+
+        String keyId = "rsa-" + UUID.randomUUID();
+        generate(admin, keyId, "RS256");
+        ResponseEntity<String> added = get(etag);
+        assertThat(added.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(added.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(keys(added.getBody())).containsKey(keyId);
+
+        remove(admin, keyId);
+        ResponseEntity<String> removed = get(added.getHeaders().getETag());
+        assertThat(removed.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(keys(removed.getBody())).doesNotContainKey(keyId);
+        assertThat(removed.getHeaders().getETag()).isEqualTo(etag);
+    }
+
+    private ResponseEntity<String> get(String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setIfNoneMatch(ifNoneMatch);
+        return restTemplate.exchange("/.well-known/jwks.json", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    private ResponseEntity<String> generate(HttpHeaders admin, String keyId, String algorithm) {
+        return restTemplate.postForEntity("/api/admin/keys/generate", new HttpEntity<>(Map.of("keyId", keyId, "algorithm", algorithm), admin), String.class);
+    }
+
+    private void remove(HttpHeaders admin, String keyId) {
+        restTemplate.exchange("/api/admin/keys/" + keyId, HttpMethod.DELETE, new HttpEntity<>(admin), String.class);
+    }
+
+    private HttpHeaders superAdmin() {
+        String username = "jwks-" + UUID.randomUUID();
+        userService.saveUser(new User(null, username, username, "1234", new HashSet<>(), null));
+        userService.addRoleToUser(username, "ROLE_SUPER_ADMIN");
+        return Logins.bearer(restTemplate, username, MediaType.APPLICATION_JSON);
+    }
+
+    private static Map<String, JsonNode> keys(String json) throws Exception {
+        Map<String, JsonNode> keys = new HashMap<>();
+        for (JsonNode key : OBJECT_MAPPER.readTree(json).get("keys")) {
+            keys.put(key.get("kid").asText(), key);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.api;
+
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Logs one of the users seeded by DemoApplication in, they all have the password 1234.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+final class Logins {
+
+    private Logins() {
+    }
+
+    static String accessToken(TestRestTemplate restTemplate, String username) {
+        return login(restTemplate, username).get("access_token");
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, String> login(TestRestTemplate restTemplate, String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("username", username);
+        form.add("password", "1234");
+        ResponseEntity<Map> response = restTemplate.postForEntity("/api/login", new HttpEntity<>(form, headers), Map.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody();
+    }
+
+    static HttpHeaders bearer(TestRestTemplate restTemplate, String username, MediaType contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(contentType);
+        headers.setBearerAuth(accessToken(restTemplate, username));
+        return headers;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests switch metrics export off unless asked, @AutoConfigureMetrics brings the Prometheus endpoint back.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@AutoConfigureMetrics
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class PrometheusEndpointTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void scrapeNeedsAdmin() {
+        assertThat(restTemplate.getForEntity("/actuator/prometheus", String.class).getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(scrapeAs("john").getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(restTemplate.getForEntity("/actuator/health", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void loginQueueWaitIsATimer() {
+        ResponseEntity<String> response = scrapeAs("jim");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("login_executor_queue_wait_seconds_count")
+                .contains("login_executor_queue_wait_seconds_bucket");
+    }
+
+    private ResponseEntity<String> scrapeAs(String username) {
+        return restTemplate.exchange("/actuator/prometheus", HttpMethod.GET,
+                new HttpEntity<>(Logins.bearer(restTemplate, username, MediaType.APPLICATION_JSON)), String.class);
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.demo.api;
+
+import com.example.demo.SqlStatements;
+import com.example.demo.domain.Role;
+import com.example.demo.domain.User;
+import com.example.demo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Many parallel grants to the same user: every one of them ends up in user_roles, and each is written as a single
+ * insert instead of rewriting the user's rows. Granting roles needs ROLE_ADMIN, one at a time or in a batch.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "users.max-conflict-attempts=100")
+@ActiveProfiles("test")
+class RoleGrantConcurrencyTest {
+
+    private static final int GRANTS = 24;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void grantsNeedAdmin() {
+        HttpHeaders headers = Logins.bearer(restTemplate, "john", MediaType.APPLICATION_JSON);
+        Map<String, String> grant = Map.of("username", "john", "roleName", "ROLE_SUPER_ADMIN");
+
+        ResponseEntity<String> single = restTemplate.postForEntity("/api/role/addtouser", new HttpEntity<>(grant, headers), String.class);
+        ResponseEntity<String> batch = restTemplate.postForEntity("/api/role/addtousers", new HttpEntity<>(List.of(grant), headers), String.class);
+
+        assertThat(single.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(batch.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(userService.getRoleNames("john")).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void parallelGrantsAreNeitherLostNorRewritten() throws Exception {
+        String username = "target-" + UUID.randomUUID();
+        userService.saveUser(new User(null, username, username, "1234", new HashSet<>(), null));
+        List<String> roleNames = new ArrayList<>();
+        for (int i = 0; i < GRANTS; i++) {
+            roleNames.add(userService.saveRole(new Role(null, "ROLE_" + UUID.randomUUID())).getName());
+        }
+        HttpHeaders headers = Logins.bearer(restTemplate, "jim", MediaType.APPLICATION_JSON);
+        SqlStatements.clear();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<String>>> responses = new ArrayList<>();
+        for (String roleName : roleNames) {
+            HttpEntity<Map<String, String>> request = new HttpEntity<>(Map.of("username", username, "roleName", roleName), headers);
+            responses.add(executor.submit(() -> {
+                start.await();
+                return restTemplate.postForEntity("/api/role/addtouser", request, String.class);
+            }));
+        }
+        start.countDown();
+        for (Future<ResponseEntity<String>> response : responses) {
+            assertThat(response.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        executor.shutdown();
+
+        assertThat(userService.getRoleNames(username)).containsExactlyInAnyOrderElementsOf(roleNames);
+        List<String> userRoleWrites = SqlStatements.all().stream()
+                .map(String::toLowerCase)
+                .filter(sql -> sql.contains("user_roles") && !sql.startsWith("select"))
+                .collect(Collectors.toList());
+        assertThat(userRoleWrites).isNotEmpty().allMatch(sql -> sql.startsWith("insert into user_roles"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.api;
+
+import com.example.demo.filter.ServerTimingFilter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "server-timing.mode=header")
+@ActiveProfiles("test")
+class ServerTimingTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void adminAskingForTimingsGetsThem() {
+        ResponseEntity<String> response = get("/api/users", "jim");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(ServerTimingFilter.SERVER_TIMING)).contains("controller;dur=").contains("total;dur=");
+    }
+
+    @Test
+    void otherUsersAskingForTimingsDoNotGetThem() {
+        ResponseEntity<String> response = get("/api/users", "john");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().containsKey(ServerTimingFilter.SERVER_TIMING)).isFalse();
+    }
+
+    @Test
+    void streamingResponsesAreNotBuffered() {
+        ResponseEntity<String> response = get("/api/users/stream", "jim");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().containsKey(ServerTimingFilter.SERVER_TIMING)).isFalse();
+        assertThat(response.getBody()).contains("\"username\":\"jim\"");
+    }
+
+    private ResponseEntity<String> get(String path, String username) {
+        HttpHeaders headers = Logins.bearer(restTemplate, username, MediaType.APPLICATION_JSON);
+        headers.add("X-Debug-Timing", "1");
+        return restTemplate.exchange(path, HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+}
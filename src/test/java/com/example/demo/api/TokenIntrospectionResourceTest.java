@@ -0,0 +1,132 @@
+package com.example.demo.api;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.security.TokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TokenIntrospectionResourceTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Value("${tokens.introspection.max-batch-size}")
+    private int maxBatchSize;
+
+    @Test
+    void everyTokenGetsALineEvenWhenItIsNoAccessToken() {
+        Map<String, String> tokens = Logins.login(restTemplate, "john");
+        /* The refresh token is signed with the same key but carries no roles. */
+        List<String> batch = Arrays.asList(tokens.get("access_token"), tokens.get("refresh_token"), "not-a-token", null);
+
+        ResponseEntity<String> response = introspect(tokens.get("access_token"), Map.of("tokens", batch));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<Integer, String> lines = lines(response.getBody());
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).contains("\"active\":true").contains("\"sub\":\"john\"");
+        assertThat(lines.get(1)).contains("\"active\":false");
+        assertThat(lines.get(2)).contains("\"active\":false");
+        assertThat(lines.get(3)).contains("\"active\":false");
+    }
+
+    @Test
+    void validExpiredAndInvalidTokensAreToldApart() {
+        String accessToken = Logins.accessToken(restTemplate, "john");
+        /* Signed with the test key, so the only thing wrong with it is that it expired a minute ago. */
+        String expired = JWT.create().withKeyId("default").withSubject("john")
+                .withClaim(TokenService.ROLES_CLAIM, List.of("ROLE_USER")).withExpiresAt(new Date(System.currentTimeMillis() - 60_000)).sign(Algorithm.HMAC256("secret"));
+        String forged = JWT.create().withKeyId("default").withSubject("john")
+                .withClaim(TokenService.ROLES_CLAIM, List.of("ROLE_ADMIN")).withExpiresAt(new Date(System.currentTimeMillis() + 60_000)).sign(Algorithm.HMAC256("not-the-secret"));
+
+        ResponseEntity<String> response = introspect(accessToken, Map.of("tokens", List.of(expired, accessToken, forged, "not-a-token")));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<Integer, String> lines = lines(response.getBody());
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(0)).contains("\"active\":false").contains("\"error\":\"expired\"");
+        assertThat(lines.get(1)).contains("\"active\":true").contains("\"sub\":\"john\"").contains("ROLE_USER");
+        assertThat(lines.get(2)).contains("\"active\":false").contains("\"error\":\"bad_signature\"").doesNotContain("ROLE_ADMIN");
+        assertThat(lines.get(3)).contains("\"active\":false").contains("\"error\":\"malformed\"");
+    }
+
+    @Test
+    void aFullBatchIsIntrospectedAndOneMoreIsRejected() {
+        String accessToken = Logins.accessToken(restTemplate, "john");
+
+        ResponseEntity<String> full = introspect(accessToken, Map.of("tokens", Collections.nCopies(maxBatchSize, accessToken)));
+        ResponseEntity<String> tooMany = introspect(accessToken, Map.of("tokens", Collections.nCopies(maxBatchSize + 1, accessToken)));
+
+        assertThat(full.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(lines(full.getBody())).hasSize(maxBatchSize);
+        assertThat(tooMany.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void anEmptyBatchGetsAnEmptyAnswer() {
+        String accessToken = Logins.accessToken(restTemplate, "john");
+
+        ResponseEntity<String> emptyList = introspect(accessToken, Map.of("tokens", List.of()));
+        ResponseEntity<String> noTokens = introspect(accessToken, Map.of());
+
+        assertThat(emptyList.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(lines(emptyList.getBody())).isEmpty();
+        assertThat(noTokens.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(lines(noTokens.getBody())).isEmpty();
+    }
+
+    @Test
+    void nullOrMissingBodyIsABadRequest() {
+        String accessToken = Logins.accessToken(restTemplate, "john");
+        Map<String, Object> nullTokens = new HashMap<>();
+        nullTokens.put("tokens", null);
+
+        assertThat(introspect(accessToken, nullTokens).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(introspect(accessToken, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private ResponseEntity<String> introspect(String accessToken, Map<String, ?> body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(accessToken);
+        return restTemplate.postForEntity("/api/token/introspect", new HttpEntity<>(body, headers), String.class);
+    }
+
+    private static Map<Integer, String> lines(String body) {
+        Map<Integer, String> lines = new HashMap<>();
+        if (body == null) {
+            return lines;
+        }
+        for (String line : body.split("\n")) {
+            if (!line.isBlank()) {
+                lines.put(Integer.parseInt(line.replaceAll(".*\"index\":(\\d+).*", "$1")), line);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.api;
+
+import com.example.demo.domain.User;
+import com.example.demo.security.TokenService;
+import com.example.demo.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Key changes that cannot be carried out answer 404 or 409 instead of failing with a 500.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class TokenKeyResourceTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenService tokenService;
+
+    private HttpHeaders headers;
+
+    @BeforeEach
+    void setUp() {
+        String username = "keys-" + UUID.randomUUID();
+        userService.saveUser(new User(null, username, username, "1234", new HashSet<>(), null));
+        userService.addRoleToUser(username, "ROLE_SUPER_ADMIN");
+        headers = Logins.bearer(restTemplate, username, MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    void unknownKeyIsNotFound() {
+        assertThat(post("/api/admin/keys/missing/activate", null).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(delete("/api/admin/keys/missing").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void activeKeyCannotBeRemoved() {
+        assertThat(delete("/api/admin/keys/" + tokenService.getActiveKeyId()).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void keyIdInUseIsAConflict() {
+        String keyId = "key-" + UUID.randomUUID();
+        Map<String, Object> form = Map.of("keyId", keyId, "secret", "first");
+
+        assertThat(post("/api/admin/keys", form).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(post("/api/admin/keys", Map.of("keyId", keyId, "secret", "second")).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(delete("/api/admin/keys/" + keyId).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void keyOfAnotherAlgorithmCannotBeActivated() {
+        String generated = "key-" + UUID.randomUUID();
+        ResponseEntity<String> generateAndActivate = post("/api/admin/keys/generate", Map.of("keyId", generated, "algorithm", "ES256", "activate", true));
+
+        assertThat(generateAndActivate.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(tokenService.hasKey(generated)).isFalse();
+
+        assertThat(post("/api/admin/keys/generate", Map.of("keyId", generated, "algorithm", "RS256")).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(post("/api/admin/keys/" + generated + "/activate", null).getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(tokenService.getActiveKeyId()).isNotEqualTo(generated);
+        assertThat(delete("/api/admin/keys/" + generated).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> post(String path, Object body) {
+        return restTemplate.postForEntity(path, new HttpEntity<>(body, headers), String.class);
+    }
+
+    private ResponseEntity<String> delete(String path) {
+        return restTemplate.exchange(path, HttpMethod.DELETE, new HttpEntity<>(headers), String.class);
+    }
+}
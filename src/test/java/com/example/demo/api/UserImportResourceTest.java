@@ -0,0 +1,71 @@
+package com.example.demo.api;
+
+import com.example.demo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Imports need ROLE_ADMIN, and rows that are null, carry null roles or cannot be stored are reported one by one
+ * while the rest of the file is imported.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserImportResourceTest {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void importNeedsAdmin() {
+        String body = "{\"name\":\"n\",\"username\":\"" + UUID.randomUUID() + "\",\"password\":\"1234\",\"roles\":[\"ROLE_USER\"]}\n";
+        ResponseEntity<String> response = restTemplate.postForEntity("/api/users/import",
+                new HttpEntity<>(body, Logins.bearer(restTemplate, "john", NDJSON)), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void badRowsAreReportedAndTheOthersImported() {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        String body = String.join("\n",
+                "{\"name\":\"n\",\"username\":\"" + prefix + "-a\",\"password\":\"1234\",\"roles\":[\"ROLE_USER\"]}",
+                "null",
+                "{\"name\":\"n\",\"username\":\"" + prefix + "-b\",\"password\":\"1234\",\"roles\":null}",
+                "{\"name\":\"n\",\"username\":\"" + prefix + "-c\",\"password\":\"1234\",\"roles\":[null]}",
+                "{\"name\":\"" + "x".repeat(300) + "\",\"username\":\"" + prefix + "-d\",\"password\":\"1234\",\"roles\":[]}",
+                "{\"name\":\"n\",\"username\":\"" + prefix + "-e\",\"password\":\"1234\",\"roles\":[\"ROLE_USER\"]}") + "\n";
+        ResponseEntity<Map> response = restTemplate.postForEntity("/api/users/import",
+                new HttpEntity<>(body, Logins.bearer(restTemplate, "jim", NDJSON)), Map.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(((Number) response.getBody().get("imported")).longValue()).isEqualTo(2);
+        assertThat(((Number) response.getBody().get("failed")).longValue()).isEqualTo(4);
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) response.getBody().get("errors");
+        assertThat(errors).extracting(error -> ((Number) error.get("line")).longValue()).containsExactlyInAnyOrder(2L, 3L, 4L, 5L);
+        assertThat(userService.getUser(prefix + "-a")).isNotNull();
+        assertThat(userService.getUser(prefix + "-e")).isNotNull();
+        assertThat(userService.getUser(prefix + "-d")).isNull();
+    }
+}
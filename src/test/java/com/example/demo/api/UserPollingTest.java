@@ -0,0 +1,132 @@
+package com.example.demo.api;
+
+import com.example.demo.SqlStatements;
+import com.example.demo.domain.Role;
+import com.example.demo.domain.User;
+import com.example.demo.repo.DatasetRevisionRepo;
+import com.example.demo.security.TokenService;
+import com.example.demo.service.UserService;
+import com.example.demo.service.impl.DatasetVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * MockMvc runs the request on the test thread, so SqlStatements.onThisThread() sees every statement it runs.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(properties = "users.version.refresh-millis=60000")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserPollingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserDetailsPasswordService userDetailsPasswordService;
+
+    @Autowired
+    private DatasetVersion datasetVersion;
+
+    @Autowired
+    private DatasetRevisionRepo datasetRevisionRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        bearer = "Bearer " + tokenService.createAccessToken("john", "test", List.of("ROLE_USER"));
+    }
+
+    @Test
+    void repeatPollRunsNoSql() throws Exception {
+        String etag = poll(null, 200);
+
+        SqlStatements.clear();
+        poll(etag, 304);
+
+        assertThat(SqlStatements.onThisThread()).isEmpty();
+    }
+
+    @Test
+    void changeOnThisInstanceIsSeenByTheNextPoll() throws Exception {
+        String etag = poll(null, 200);
+
+        userService.saveRole(new Role(null, "ROLE_" + UUID.randomUUID()));
+
+        assertThat(poll(etag, 200)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void changeOnAnotherInstanceIsSeenAfterTheRefreshInterval() {
+        DatasetVersion otherInstance = new DatasetVersion(datasetRevisionRepo, transactionManager, 0);
+        String etag = otherInstance.etag();
+
+        userService.saveRole(new Role(null, "ROLE_" + UUID.randomUUID()));
+
+        assertThat(otherInstance.etag()).isNotEqualTo(etag).isEqualTo(datasetVersion.etag());
+    }
+
+    @Test
+    void passwordRehashLeavesTheVersionAlone() throws Exception {
+        String username = "rehash-" + UUID.randomUUID();
+        userService.saveUser(new User(null, username, username, "1234", new HashSet<>(), null));
+        String etag = poll(null, 200);
+
+        userDetailsPasswordService.updatePassword(org.springframework.security.core.userdetails.User.withUsername(username)
+                .password("1234").authorities("ROLE_USER").build(), "{noop}1234");
+
+        poll(etag, 304);
+    }
+
+    @Test
+    void writesInOneTransactionIncrementTheRevisionOnceAfterItCommits() {
+        long before = datasetRevisionRepo.findRevision("users");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (int i = 0; i < 3; i++) {
+                String username = "batch-" + UUID.randomUUID();
+                userService.saveUser(new User(null, username, username, "1234", new HashSet<>(), null));
+            }
+            assertThat(datasetRevisionRepo.findRevision("users")).isEqualTo(before);
+        });
+
+        assertThat(datasetRevisionRepo.findRevision("users")).isEqualTo(before + 1);
+    }
+
+    private String poll(String etag, int expectedStatus) throws Exception {
+        var request = get("/api/users").header(HttpHeaders.AUTHORIZATION, bearer);
+        if (etag != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        return mockMvc.perform(request).andExpect(status().is(expectedStatus)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
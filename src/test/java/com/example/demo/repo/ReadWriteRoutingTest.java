@@ -0,0 +1,122 @@
+package com.example.demo.repo;
+
+import com.example.demo.domain.User;
+import com.example.demo.service.UserService;
+import com.example.demo.service.impl.DatasetVersion;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two H2 databases, a primary and a replica. The replica is a copy of the primary taken once at startup
+ * and never updated again, so it behaves like a replica that has fallen behind.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1",
+        "app.datasource.replica.username=sa",
+        "app.datasource.replica.password=",
+        "app.datasource.replica.driver-class-name=org.h2.Driver",
+        "refresh-tokens.flush-interval-millis=3600000",
+        "users.version.refresh-millis=60000",
+        "users.bloom.sync-interval-millis=3600000"
+})
+@ActiveProfiles("test")
+class ReadWriteRoutingTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private DatasetVersion datasetVersion;
+
+    @Test
+    void loginsNeverTakeAPrimaryConnection() {
+        long primary = routingDataSource.getPrimaryConnectionCount();
+        long replica = routingDataSource.getReplicaConnectionCount();
+
+        for (String username : List.of("john", "will", "jim", "arnold")) {
+            assertThat(login(username).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+
+        assertThat(routingDataSource.getPrimaryConnectionCount()).isEqualTo(primary);
+        assertThat(routingDataSource.getReplicaConnectionCount()).isGreaterThan(replica);
+    }
+
+    @Test
+    void userListIsReadFromThePrimary() {
+        String username = "routing-" + UUID.randomUUID();
+        userService.saveUser(new User(null, username, username, "1234", new HashSet<>(), null));
+        /* The replica never sees this user. */
+        datasetVersion.etag();
+        /*
+         * Most polls find the version cached. Reading it from the database here would give the request a primary
+         * connection before the list is read, and the list would come from the primary regardless of the routing.
+         * */
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth((String) login("john").getBody().get("access_token"));
+
+        ResponseEntity<String> response = restTemplate.exchange("/api/users", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains(username);
+    }
+
+    private ResponseEntity<Map> login(String username) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("username", username);
+        form.add("password", "1234");
+        return restTemplate.postForEntity("/api/login", new HttpEntity<>(form, headers), Map.class);
+    }
+
+    @TestConfiguration
+    static class ReplicaCopy {
+
+        /*
+         * Runs after DemoApplication has seeded the primary and before anything reads from the replica at startup.
+         * */
+        @EventListener(ApplicationReadyEvent.class)
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        public void copyPrimaryToReplica(ApplicationReadyEvent event) {
+            JdbcTemplate primary = new JdbcTemplate(event.getApplicationContext().getBean("primaryDataSource", HikariDataSource.class));
+            JdbcTemplate replica = new JdbcTemplate(event.getApplicationContext().getBean("replicaDataSource", HikariDataSource.class));
+            replica.execute("DROP ALL OBJECTS");
+            primary.queryForList("SCRIPT", String.class).forEach(replica::execute);
+        }
+    }
+}
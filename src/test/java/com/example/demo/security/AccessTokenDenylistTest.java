@@ -0,0 +1,138 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * One minute buckets on a clock the tests move forward.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class AccessTokenDenylistTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-17T12:00:00Z");
+    private static final long VALIDITY = TokenService.ACCESS_TOKEN_VALIDITY_MILLIS;
+
+    private AccessTokenDenylist denylist;
+
+    @BeforeEach
+    void setUp() {
+        denylist = denylist(1000, 0.001);
+    }
+
+    private static AccessTokenDenylist denylist(long expectedRevocationsPerBucket, double falsePositiveProbability) {
+        AccessTokenDenylist denylist = new AccessTokenDenylist(60, expectedRevocationsPerBucket, falsePositiveProbability);
+        denylist.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+        return denylist;
+    }
+
+    @Test
+    void onlyTheRevokedTokenIsRejected() {
+        VerifiedToken revoked = token("a", "john", NOW, NOW.plusMillis(VALIDITY));
+        VerifiedToken other = token("b", "john", NOW, NOW.plusMillis(VALIDITY));
+
+        denylist.revokeToken("a", revoked.getExpiresAtMillis());
+
+        assertThat(denylist.isRevoked(revoked)).isTrue();
+        assertThat(denylist.isRevoked(other)).isFalse();
+        assertThat(denylist.getRejectedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void tokenIdWithoutExpiryIsRevokedInEveryBucketALiveTokenCanBeIn() {
+        denylist.revokeToken("a", null);
+
+        assertThat(denylist.isRevoked(token("a", "john", NOW.minusSeconds(590), NOW.plusSeconds(10)))).isTrue();
+        assertThat(denylist.isRevoked(token("a", "john", NOW, NOW.plusMillis(VALIDITY)))).isTrue();
+    }
+
+    @Test
+    void bloomFalsePositivesAreResolvedAgainstTheExactSet() {
+        denylist = denylist(1, 0.5);
+        Instant expiresAt = NOW.plusMillis(VALIDITY);
+        denylist.revokeToken("revoked", expiresAt.toEpochMilli());
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(denylist.isRevoked(token("live-" + i, "john", NOW, expiresAt))).isFalse();
+        }
+        assertThat(denylist.getBloomFalsePositiveCount()).isPositive();
+        assertThat(denylist.isRevoked(token("revoked", "john", NOW, expiresAt))).isTrue();
+    }
+
+    @Test
+    void bucketsArePurgedOnceTheirTokensHaveExpired() {
+        Instant expiresAt = NOW.plusSeconds(90);
+        VerifiedToken token = token("a", "john", expiresAt.minusMillis(VALIDITY), expiresAt);
+        denylist.revokeToken("a", expiresAt.toEpochMilli());
+
+        denylist.setClock(Clock.fixed(expiresAt.minusSeconds(1), ZoneOffset.UTC));
+        denylist.purge();
+        assertThat(denylist.isRevoked(token)).isTrue();
+
+        denylist.setClock(Clock.fixed(NOW.plusMillis(VALIDITY).plusSeconds(120), ZoneOffset.UTC));
+        denylist.purge();
+        assertThat(denylist.isRevoked(token)).isFalse();
+    }
+
+    @Test
+    void aSlotReusedForALaterBucketDoesNotRejectItsTokens() {
+        Instant expiresAt = NOW.plusSeconds(90);
+        denylist.revokeToken("a", expiresAt.toEpochMilli());
+
+        /* Twelve one minute buckets in the ring, the same slot comes round again twelve minutes later. */
+        Instant later = expiresAt.plus(Duration.ofMinutes(12));
+        denylist.setClock(Clock.fixed(later.minusMillis(VALIDITY), ZoneOffset.UTC));
+
+        assertThat(denylist.isRevoked(token("a", "john", later.minusMillis(VALIDITY), later))).isFalse();
+        denylist.revokeToken("b", later.toEpochMilli());
+        assertThat(denylist.isRevoked(token("b", "john", later.minusMillis(VALIDITY), later))).isTrue();
+        assertThat(denylist.isRevoked(token("a", "john", later.minusMillis(VALIDITY), later))).isFalse();
+    }
+
+    @Test
+    void revokingASubjectRejectsTheTokensIssuedUpToThatSecond() {
+        VerifiedToken before = token("a", "john", NOW.minusSeconds(60), NOW.minusSeconds(60).plusMillis(VALIDITY));
+        VerifiedToken sameSecond = token("b", "john", NOW, NOW.plusMillis(VALIDITY));
+        VerifiedToken otherUser = token("c", "jim", NOW.minusSeconds(60), NOW.minusSeconds(60).plusMillis(VALIDITY));
+
+        denylist.revokeSubject("john");
+
+        VerifiedToken after = token("d", "john", NOW.plusSeconds(1), NOW.plusSeconds(1).plusMillis(VALIDITY));
+        assertThat(denylist.isRevoked(before)).isTrue();
+        assertThat(denylist.isRevoked(sameSecond)).isTrue();
+        assertThat(denylist.isRevoked(after)).isFalse();
+        assertThat(denylist.isRevoked(otherUser)).isFalse();
+    }
+
+    @Test
+    void subjectIsForgottenOnceAllItsRevokedTokensHaveExpired() {
+        denylist.revokeSubject("john");
+
+        denylist.setClock(Clock.fixed(NOW.plusMillis(VALIDITY), ZoneOffset.UTC));
+        denylist.purge();
+        assertThat(denylist.getRevokedSubjectCount()).isEqualTo(1);
+
+        denylist.setClock(Clock.fixed(NOW.plusMillis(VALIDITY).plusSeconds(1), ZoneOffset.UTC));
+        denylist.purge();
+        assertThat(denylist.getRevokedSubjectCount()).isZero();
+    }
+
+    private static VerifiedToken token(String tokenId, String username, Instant issuedAt, Instant expiresAt) {
+        String token = JWT.create().withJWTId(tokenId).withSubject(username)
+                .withIssuedAt(Date.from(issuedAt)).withExpiresAt(Date.from(expiresAt)).sign(Algorithm.HMAC256("secret"));
+        return new VerifiedToken(new UsernamePasswordAuthenticationToken(username, null, List.of()), JWT.decode(token));
+    }
+}
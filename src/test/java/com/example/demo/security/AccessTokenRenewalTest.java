@@ -0,0 +1,83 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The renewed token travels in a header of an ordinary request, and only once the presented token is in its renewal
+ * window.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "jwt.renewal.enabled=true")
+@ActiveProfiles("test")
+class AccessTokenRenewalTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private AccessTokenRenewer accessTokenRenewer;
+
+    @AfterEach
+    void resetClock() {
+        accessTokenRenewer.setClock(Clock.systemUTC());
+    }
+
+    @Test
+    void freshTokenGetsNoRenewalHeader() {
+        ResponseEntity<String> response = getUsers(login());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().containsKey(AccessTokenRenewer.RENEWED_TOKEN_HEADER)).isFalse();
+    }
+
+    @Test
+    void tokenInItsWindowGetsTheSameSuccessorOnEveryRequest() {
+        String token = login();
+        accessTokenRenewer.setClock(Clock.offset(Clock.systemUTC(), Duration.ofMillis(TokenService.ACCESS_TOKEN_VALIDITY_MILLIS).minusSeconds(30)));
+
+        ResponseEntity<String> first = getUsers(token);
+        ResponseEntity<String> second = getUsers(token);
+
+        String renewed = first.getHeaders().getFirst(AccessTokenRenewer.RENEWED_TOKEN_HEADER);
+        assertThat(renewed).isNotNull().isNotEqualTo(token);
+        assertThat(second.getHeaders().getFirst(AccessTokenRenewer.RENEWED_TOKEN_HEADER)).isEqualTo(renewed);
+        assertThat(getUsers(renewed).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private ResponseEntity<String> getUsers(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return restTemplate.exchange("/api/users", HttpMethod.GET, new HttpEntity<>(headers), String.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private String login() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("username", "john");
+        form.add("password", "1234");
+        return (String) restTemplate.postForEntity("/api/login", new HttpEntity<>(form, headers), Map.class).getBody().get("access_token");
+    }
+}
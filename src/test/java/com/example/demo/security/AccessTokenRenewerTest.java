@@ -0,0 +1,116 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.example.demo.repo.RoleRepo;
+import com.example.demo.service.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A renewal window of 120 seconds with 60 seconds of jitter, on a clock the tests set.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class AccessTokenRenewerTest {
+
+    private static final long WINDOW_MILLIS = 120_000;
+    private static final Instant NOW = Instant.parse("2026-10-17T12:00:00Z");
+
+    private AccessTokenRenewer renewer;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setKeys(Map.of(TokenService.DEFAULT_KEY_ID, "secret"));
+        TokenService tokenService = new TokenService(properties, new RoleCatalog(mock(RoleRepo.class)), new VerifiedTokenCache(100));
+        UserService userService = mock(UserService.class);
+        when(userService.getRoleNames("john")).thenReturn(List.of("ROLE_USER"));
+        renewer = new AccessTokenRenewer(tokenService, userService, new AuthMetrics(new SimpleMeterRegistry()), true, 120, 60, 100);
+        renewer.setClock(Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    void tokenOutsideTheWindowIsNotRenewed() {
+        VerifiedToken token = token("a", NOW.toEpochMilli() + WINDOW_MILLIS + 1000);
+
+        assertThat(renewer.renew(token, "test")).isNull();
+    }
+
+    @Test
+    void tokenIsRenewedFromItsOwnPointInTheWindow() {
+        long expiresAt = NOW.toEpochMilli() + WINDOW_MILLIS;
+        VerifiedToken token = token("b", expiresAt);
+        long renewsAt = expiresAt - (WINDOW_MILLIS - renewer.jitter("b@" + expiresAt));
+
+        renewer.setClock(Clock.fixed(Instant.ofEpochMilli(renewsAt - 1), ZoneOffset.UTC));
+        assertThat(renewer.renew(token, "test")).isNull();
+
+        renewer.setClock(Clock.fixed(Instant.ofEpochMilli(renewsAt), ZoneOffset.UTC));
+        assertThat(renewer.renew(token, "test")).isNotNull();
+    }
+
+    @Test
+    void tokensOfOneSecondSpreadTheirRenewalsOverTheJitter() {
+        long expiresAt = NOW.toEpochMilli() + WINDOW_MILLIS;
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        for (int i = 0; i < 100; i++) {
+            long jitter = renewer.jitter("token-" + i + "@" + expiresAt);
+            assertThat(jitter).isBetween(0L, 59_999L);
+            earliest = Math.min(earliest, jitter);
+            latest = Math.max(latest, jitter);
+        }
+        assertThat(latest - earliest).isGreaterThan(30_000);
+    }
+
+    @Test
+    void everyRequestWithTheSameTokenGetsTheSameSuccessor() {
+        VerifiedToken token = token("c", NOW.toEpochMilli() + 30_000);
+
+        String successor = renewer.renew(token, "test");
+
+        assertThat(successor).isNotNull();
+        assertThat(renewer.renew(token, "test")).isEqualTo(successor);
+        assertThat(JWT.decode(successor).getId()).isEqualTo("c");
+        assertThat(JWT.decode(successor).getClaim(TokenService.ROLES_CLAIM).asList(String.class)).containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void revokingTheOriginalRevokesItsSuccessor() {
+        renewer.setClock(Clock.systemUTC());
+        VerifiedToken original = token("d", System.currentTimeMillis() + 60_000);
+        VerifiedToken successor = decoded(renewer.renew(original, "test"));
+        assertThat(successor.getExpiresAtMillis()).isGreaterThan(original.getExpiresAtMillis());
+
+        AccessTokenDenylist denylist = new AccessTokenDenylist(60, 100, 0.001);
+        denylist.revokeToken(original.getTokenId(), original.getExpiresAtMillis());
+
+        assertThat(denylist.isRevoked(original)).isTrue();
+        assertThat(denylist.isRevoked(successor)).isTrue();
+    }
+
+    private static VerifiedToken token(String tokenId, long expiresAtMillis) {
+        return decoded(JWT.create().withJWTId(tokenId).withSubject("john")
+                .withIssuedAt(new Date(expiresAtMillis - TokenService.ACCESS_TOKEN_VALIDITY_MILLIS))
+                .withExpiresAt(new Date(expiresAtMillis)).sign(Algorithm.HMAC256("other")));
+    }
+
+    private static VerifiedToken decoded(String token) {
+        return new VerifiedToken(new UsernamePasswordAuthenticationToken("john", null, List.of()), JWT.decode(token));
+    }
+}
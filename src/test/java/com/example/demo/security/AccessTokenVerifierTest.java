@@ -0,0 +1,57 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.example.demo.repo.RoleRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class AccessTokenVerifierTest {
+
+    private VerifiedTokenCache verifiedTokenCache;
+    private TokenService tokenService;
+    private AccessTokenVerifier accessTokenVerifier;
+
+    @BeforeEach
+    void setUp() {
+        JwtProperties properties = new JwtProperties();
+        properties.setKeys(Map.of("old", "old-secret", "new", "new-secret"));
+        properties.setActiveKeyId("old");
+        verifiedTokenCache = new VerifiedTokenCache(100);
+        tokenService = new TokenService(properties, new RoleCatalog(mock(RoleRepo.class)), verifiedTokenCache);
+        accessTokenVerifier = new AccessTokenVerifier(tokenService, verifiedTokenCache, new AccessTokenDenylist(60, 100, 0.001),
+                new AuthMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void cachedTokenOfARemovedKeyIsRejected() {
+        String token = tokenService.createAccessToken("john", "test", List.of("ROLE_USER"));
+        VerifiedToken verified = accessTokenVerifier.verify(token);
+        tokenService.activateKey("new");
+
+        tokenService.removeKey("old");
+        verifiedTokenCache.put(token, verified);
+        /* A verification that was running while the key was removed puts its result back. */
+
+        assertThatThrownBy(() -> accessTokenVerifier.verify(token)).isInstanceOf(JWTVerificationException.class);
+    }
+
+    @Test
+    void tokenOfAKeptKeyIsServedFromTheCache() {
+        String token = tokenService.createAccessToken("john", "test", List.of("ROLE_USER"));
+        VerifiedToken verified = accessTokenVerifier.verify(token);
+
+        assertThat(accessTokenVerifier.verify(token)).isSameAs(verified);
+    }
+}
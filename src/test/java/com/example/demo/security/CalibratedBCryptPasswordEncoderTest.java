@@ -0,0 +1,31 @@
+package com.example.demo.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class CalibratedBCryptPasswordEncoderTest {
+
+    private final CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+    @Test
+    void weakerHashIsUpgraded() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("1234"))).isTrue();
+    }
+
+    @Test
+    void hashOfTheSameStrengthIsKept() {
+        assertThat(encoder.upgradeEncoding(encoder.encode("1234"))).isFalse();
+    }
+
+    @Test
+    void strongerHashIsKept() {
+        /* Written by an instance that calibrated to a higher cost, re-hashing it would only flip it back and forth. */
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("1234"))).isFalse();
+    }
+}
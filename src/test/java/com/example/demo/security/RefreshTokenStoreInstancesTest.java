@@ -0,0 +1,104 @@
+package com.example.demo.security;
+
+import com.example.demo.SqlStatements;
+import com.example.demo.repo.RefreshTokenRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Two stores on one database stand in for two instances: each has its own index, only the database is shared. A
+ * rotation is decided in memory, the instances see each other's rotations and revocations once they have flushed.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenStoreInstancesTest {
+
+    @Autowired
+    private RefreshTokenRepo refreshTokenRepo;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RefreshTokenStore a;
+    private RefreshTokenStore b;
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        a = new RefreshTokenStore(refreshTokenRepo, entityManager, transactionManager, 5);
+        b = new RefreshTokenStore(refreshTokenRepo, entityManager, transactionManager, 5);
+        username = "user-" + UUID.randomUUID();
+    }
+
+    @Test
+    void rotationsRunNoSql() {
+        String first = a.issue(username);
+        a.flush();
+        String second = a.rotate(first, username);
+        SqlStatements.clear();
+
+        a.rotate(second, username);
+
+        assertThat(SqlStatements.onThisThread()).isEmpty();
+    }
+
+    @Test
+    void tokenRotatedOnBothInstancesIsReuseOnceBothHaveFlushed() {
+        String first = a.issue(username);
+        a.flush();
+        String second = b.rotate(first, username);
+        /* A still has the token indexed as unused, its rotation passes until the flushes meet. */
+        String replayed = a.rotate(first, username);
+        b.flush();
+        a.flush();
+
+        assertThat(a.getReuseDetectedCount()).isEqualTo(1);
+        assertThatThrownBy(() -> a.rotate(replayed, username)).isInstanceOf(TokenRevokedException.class);
+        assertThat(refreshTokenRepo.findRevokedById(second)).isTrue();
+        assertThat(refreshTokenRepo.findRevokedById(replayed)).isTrue();
+    }
+
+    @Test
+    void revokingAUserOnOneInstanceTakesEffectOnTheOtherWithItsNextFlush() {
+        String first = a.issue(username);
+        a.flush();
+        String second = b.rotate(first, username);
+        b.flush();
+
+        a.revokeUser(username);
+        String third = b.rotate(second, username);
+        b.flush();
+
+        assertThatThrownBy(() -> b.rotate(third, username)).isInstanceOf(TokenRevokedException.class);
+        assertThat(refreshTokenRepo.findRevokedById(third)).isTrue();
+    }
+
+    @Test
+    void tokenIssuedMomentsAgoCanBeRotatedAndItsSuccessorRotatedElsewhereAfterAFlush() {
+        String first = a.issue(username);
+        /* Not flushed yet. */
+        String second = a.rotate(first, username);
+        a.flush();
+        String third = b.rotate(second, username);
+
+        assertThat(third).isNotNull();
+        assertThatThrownBy(() -> b.rotate(first, username)).isInstanceOf(TokenRevokedException.class);
+        assertThat(refreshTokenRepo.findById(first)).get().extracting(token -> token.isUsed()).isEqualTo(true);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo.security;
+
+import com.example.demo.repo.RefreshTokenRepo;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class RefreshTokenStoreTest {
+
+    @Test
+    void failedWritesAreDroppedAfterMaxFlushAttempts() {
+        EntityManager entityManager = mock(EntityManager.class);
+        doThrow(new PersistenceException("rejected")).when(entityManager).persist(any());
+        RefreshTokenStore store = new RefreshTokenStore(mock(RefreshTokenRepo.class), entityManager, mock(PlatformTransactionManager.class), 3);
+        store.issue("john");
+
+        store.flush();
+        store.flush();
+        assertThat(store.getPendingWrites()).isEqualTo(1);
+        assertThat(store.getDroppedWriteCount()).isZero();
+
+        store.flush();
+        assertThat(store.getPendingWrites()).isZero();
+        assertThat(store.getDroppedWriteCount()).isEqualTo(1);
+    }
+}
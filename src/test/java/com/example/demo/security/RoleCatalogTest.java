@@ -0,0 +1,56 @@
+package com.example.demo.security;
+
+import com.example.demo.domain.Role;
+import com.example.demo.repo.RoleRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class RoleCatalogTest {
+
+    private final RoleRepo roleRepo = mock(RoleRepo.class);
+    private RoleCatalog roleCatalog;
+
+    @BeforeEach
+    void setUp() {
+        /* Ids as a pooled sequence hands them out across three restarts. */
+        when(roleRepo.findAll()).thenReturn(List.of(
+                new Role(1L, "ROLE_USER", 0),
+                new Role(51L, "ROLE_MANAGER", 1),
+                new Role(101L, "ROLE_ADMIN", 2)));
+        roleCatalog = new RoleCatalog(roleRepo);
+        roleCatalog.refresh();
+    }
+
+    @Test
+    void bitmaskIsIndexedByOrdinalNotId() {
+        String bitmask = roleCatalog.toBitmask(List.of("ROLE_USER", "ROLE_MANAGER", "ROLE_ADMIN"));
+
+        assertThat(bitmask).isEqualTo("2.Bw");
+        assertThat(roleCatalog.authoritiesFromBitmask(bitmask)).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "ROLE_MANAGER", "ROLE_ADMIN");
+    }
+
+    @Test
+    void roleWithoutOrdinalFallsBackToTheArray() {
+        roleCatalog.register(new Role(151L, "ROLE_LEGACY"));
+
+        assertThat(roleCatalog.toBitmask(List.of("ROLE_USER", "ROLE_LEGACY"))).isNull();
+    }
+
+    @Test
+    void idBasedBitmaskIsRejected() {
+        assertThatThrownBy(() -> roleCatalog.authoritiesFromBitmask("1.Ag")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullAndEmptySource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TokenResponseWriter has to produce exactly the bytes the HashMap and ObjectMapper it replaced did.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class TokenResponseWriterTest {
+
+    private static final String ISSUER = "http://localhost:8080/api/login";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void tokensBodyMatchesObjectMapper() throws Exception {
+        JwtProperties properties = new JwtProperties();
+        properties.getKeys().put(TokenService.DEFAULT_KEY_ID, "secret");
+        TokenService tokenService = new TokenService(properties, new RoleCatalog(null), new VerifiedTokenCache(1));
+        String accessToken = tokenService.createAccessToken("john", ISSUER, List.of("ROLE_USER"));
+        String refreshToken = tokenService.createRefreshToken("john", ISSUER, UUID.randomUUID().toString());
+
+        Map<String, String> tokens = new HashMap<>();
+        tokens.put("access_token", accessToken);
+        tokens.put("refresh_token", refreshToken);
+
+        assertThat(TokenResponseWriter.tokensBody(accessToken, refreshToken)).isEqualTo(objectMapper.writeValueAsBytes(tokens));
+    }
+
+    @ParameterizedTest
+    @NullAndEmptySource
+    @ValueSource(strings = {
+            "The Token has expired on 2026-10-17T10:00:00Z.",
+            "quote \" backslash \\ slash / tab \t newline \n return \r backspace \b formfeed \f",
+            "control \u0000 \u0001 \u001f delete \u007f",
+            "latin é ü ß, cjk 漢字, emoji 😀"})
+    void errorBodyMatchesObjectMapper(String message) throws Exception {
+        Map<String, String> error = new HashMap<>();
+        error.put("error_message", message);
+
+        assertThat(TokenResponseWriter.errorBody(message)).isEqualTo(objectMapper.writeValueAsBytes(error));
+    }
+}
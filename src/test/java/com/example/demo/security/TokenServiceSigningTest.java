@@ -0,0 +1,130 @@
+package com.example.demo.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.example.demo.repo.RoleRepo;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tokens signed with an RS256 or ES256 key verify here and, with nothing but the published JWKS, anywhere else.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class TokenServiceSigningTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @ParameterizedTest
+    @EnumSource(value = JwtProperties.SigningAlgorithm.class, names = {"RS256", "ES256"})
+    void generatedKeyPairSignsAndVerifies(JwtProperties.SigningAlgorithm algorithm) throws Exception {
+        JwtProperties properties = new JwtProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setActiveKeyId("generated");
+        TokenService tokenService = tokenService(properties);
+
+        String token = tokenService.createAccessToken("john", "test", List.of("ROLE_USER"));
+        DecodedJWT verified = tokenService.verify(token);
+
+        assertThat(verified.getAlgorithm()).isEqualTo(algorithm.name());
+        assertThat(verified.getKeyId()).isEqualTo("generated");
+        assertThat(verified.getSubject()).isEqualTo("john");
+        assertThat(verifyWithJwks(tokenService, token)).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = JwtProperties.SigningAlgorithm.class, names = {"RS256", "ES256"})
+    void configuredPemKeyPairSignsAndVerifies(JwtProperties.SigningAlgorithm algorithm) throws Exception {
+        KeyPair keyPair = KeyPairs.generate(algorithm);
+        JwtProperties.KeyPairProperties pem = new JwtProperties.KeyPairProperties();
+        pem.setPrivateKey(pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        pem.setPublicKey(pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+        JwtProperties properties = new JwtProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setActiveKeyId("configured");
+        properties.getKeyPairs().put("configured", pem);
+        TokenService tokenService = tokenService(properties);
+
+        String token = tokenService.createAccessToken("john", "test", List.of("ROLE_USER"));
+
+        assertThat(tokenService.verify(token).getKeyId()).isEqualTo("configured");
+        assertThat(verifyWithJwks(tokenService, token)).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = JwtProperties.SigningAlgorithm.class, names = {"RS256", "ES256"})
+    void tokenOfAnotherAlgorithmIsRejectedUnderTheSameKeyId(JwtProperties.SigningAlgorithm algorithm) {
+        JwtProperties properties = new JwtProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setActiveKeyId("generated");
+        TokenService tokenService = tokenService(properties);
+        byte[] publicKey = tokenService.getJsonWebKeySet().getJson();
+        String forged = JWT.create().withKeyId("generated").withSubject("john").sign(Algorithm.HMAC256(publicKey));
+
+        assertThatThrownBy(() -> tokenService.verify(forged)).isInstanceOf(JWTVerificationException.class);
+    }
+
+    private static TokenService tokenService(JwtProperties properties) {
+        return new TokenService(properties, new RoleCatalog(mock(RoleRepo.class)), new VerifiedTokenCache(100));
+    }
+
+    /*
+     * Rebuilds the public key from the JWKS entry named by the token's "kid", the way a resource server would.
+     * */
+    private static boolean verifyWithJwks(TokenService tokenService, String token) throws Exception {
+        DecodedJWT decoded = JWT.decode(token);
+        JsonNode jwk = null;
+        for (JsonNode key : OBJECT_MAPPER.readTree(tokenService.getJsonWebKeySet().getJson()).get("keys")) {
+            if (key.get("kid").asText().equals(decoded.getKeyId())) {
+                jwk = key;
+            }
+        }
+        assertThat(jwk).isNotNull();
+        assertThat(jwk.get("alg").asText()).isEqualTo(decoded.getAlgorithm());
+        Algorithm algorithm;
+        if (jwk.get("kty").asText().equals("RSA")) {
+            RSAPublicKey publicKey = (RSAPublicKey) KeyFactory.getInstance("RSA")
+                    .generatePublic(new RSAPublicKeySpec(unsigned(jwk, "n"), unsigned(jwk, "e")));
+            algorithm = Algorithm.RSA256(publicKey, null);
+        } else {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            ECPublicKey publicKey = (ECPublicKey) KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(
+                    new ECPoint(unsigned(jwk, "x"), unsigned(jwk, "y")), parameters.getParameterSpec(ECParameterSpec.class)));
+            algorithm = Algorithm.ECDSA256(publicKey, null);
+        }
+        JWT.require(algorithm).build().verify(decoded);
+        return true;
+    }
+
+    private static BigInteger unsigned(JsonNode jwk, String field) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(jwk.get(field).asText()));
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END " + type + "-----\n";
+    }
+}
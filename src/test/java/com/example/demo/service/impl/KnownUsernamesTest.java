@@ -0,0 +1,103 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+class KnownUsernamesTest {
+
+    private final UserRepo userRepo = mock(UserRepo.class);
+    private final DatasetVersion datasetVersion = mock(DatasetVersion.class);
+    private KnownUsernames knownUsernames;
+
+    @BeforeEach
+    void setUp() {
+        knownUsernames = knownUsernames(0);
+    }
+
+    private KnownUsernames knownUsernames(long minReseedIntervalMillis) {
+        KnownUsernames knownUsernames = new KnownUsernames(userRepo, mock(PlatformTransactionManager.class), datasetVersion, 1000, 0.01, minReseedIntervalMillis, 60);
+        when(datasetVersion.latest()).thenReturn(1L);
+        when(userRepo.streamAllUsernames()).thenReturn(Stream.of("john"));
+        knownUsernames.seed();
+        return knownUsernames;
+    }
+
+    @Test
+    void seededUsernameIsNeverRejected() {
+        assertThat(knownUsernames.isDefinitelyUnknown("john")).isFalse();
+    }
+
+    @Test
+    void sprayIsRejectedWithoutLookupsWhileTheFilterIsCurrent() {
+        knownUsernames.sync();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(knownUsernames.isDefinitelyUnknown("spray-" + i)).isTrue();
+        }
+        assertThat(knownUsernames.getFallbackLookupCount()).isZero();
+    }
+
+    @Test
+    void usernameMissingFromTheFilterIsLookedUpOnceUsersHaveChangedElsewhere() {
+        knownUsernames = knownUsernames(3_600_000);
+        /* A user saved on another instance, the filter is not refilled yet. */
+        when(datasetVersion.latest()).thenReturn(2L);
+        knownUsernames.sync();
+
+        for (int i = 0; i < 1000; i++) {
+            knownUsernames.isDefinitelyUnknown("spray-" + i);
+        }
+        assertThat(knownUsernames.isDefinitelyUnknown("mary")).isFalse();
+        assertThat(knownUsernames.getFallbackLookupCount()).isEqualTo(1001);
+    }
+
+    @Test
+    void syncRefillsTheFilterOnceUsersHaveChanged() {
+        when(datasetVersion.latest()).thenReturn(2L);
+        when(userRepo.streamAllUsernames()).thenReturn(Stream.of("john", "mary"));
+        knownUsernames.sync();
+
+        assertThat(knownUsernames.isDefinitelyUnknown("mary")).isFalse();
+        assertThat(knownUsernames.isDefinitelyUnknown("nobody")).isTrue();
+        assertThat(knownUsernames.getFallbackLookupCount()).isZero();
+    }
+
+    @Test
+    void confirmedUnknownUsernameIsRejectedWithoutAnotherLookup() {
+        knownUsernames = knownUsernames(3_600_000);
+        when(datasetVersion.latest()).thenReturn(2L);
+        knownUsernames.sync();
+        knownUsernames.confirmUnknown("nobody");
+
+        assertThat(knownUsernames.isDefinitelyUnknown("nobody")).isTrue();
+        assertThat(knownUsernames.getFallbackLookupCount()).isZero();
+    }
+
+    @Test
+    void addedUsernameIsNoLongerConfirmedUnknown() {
+        knownUsernames.confirmUnknown("mary");
+        knownUsernames.add("mary");
+
+        assertThat(knownUsernames.isDefinitelyUnknown("mary")).isFalse();
+    }
+
+    @Test
+    void reseedPicksUpUsersSavedElsewhere() {
+        when(userRepo.streamAllUsernames()).thenReturn(Stream.of("john", "mary"));
+        knownUsernames.seed();
+
+        assertThat(knownUsernames.isDefinitelyUnknown("mary")).isFalse();
+        assertThat(knownUsernames.getFallbackLookupCount()).isZero();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.domain.Role;
+import com.example.demo.repo.RoleRepo;
+import com.example.demo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Roles saved in parallel still get distinct ordinals without gaps, whatever ids the sequence hands out.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest(properties = "users.max-conflict-attempts=100")
+@ActiveProfiles("test")
+class RoleOrdinalTest {
+
+    private static final int ROLES = 16;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private RoleRepo roleRepo;
+
+    @Test
+    void parallelSavesGetDenseOrdinals() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(ROLES);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Role>> saved = new ArrayList<>();
+        for (int i = 0; i < ROLES; i++) {
+            Role role = new Role(null, "ROLE_" + UUID.randomUUID(), 999);
+            saved.add(executor.submit(() -> {
+                start.await();
+                return userService.saveRole(role);
+            }));
+        }
+        start.countDown();
+        for (Future<Role> role : saved) {
+            assertThat(role.get().getOrdinal()).isNotEqualTo(999);
+        }
+        executor.shutdown();
+
+        List<Integer> ordinals = roleRepo.findAll().stream().map(Role::getOrdinal).sorted().collect(Collectors.toList());
+        assertThat(ordinals).containsExactlyElementsOf(IntStream.range(0, ordinals.size()).boxed().collect(Collectors.toList()));
+    }
+}
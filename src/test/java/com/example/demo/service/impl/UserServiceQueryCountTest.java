@@ -0,0 +1,97 @@
+package com.example.demo.service.impl;
+
+import com.example.demo.SqlStatements;
+import com.example.demo.domain.User;
+import com.example.demo.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The user and role reads run a fixed number of statements, however many users there are and however many roles
+ * each of them has.
+ *
+ * @developed-by : mGunawardhana
+ * @contact : 071-9043372
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceQueryCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserServiceImpl userServiceImpl;
+
+    @Autowired
+    private UserDetailsCache userDetailsCache;
+
+    @Test
+    void listingUsersRunsOneStatementForAnyNumberOfUsers() {
+        int before = statements(() -> userService.getUsers());
+        addUsers(30);
+        int after = statements(() -> userService.getUsers());
+
+        assertThat(before).isEqualTo(1);
+        assertThat(after).isEqualTo(1);
+    }
+
+    @Test
+    void pageOfUsersRunsTwoStatementsForAnyPageSize() {
+        addUsers(30);
+
+        assertThat(statements(() -> userService.getUsersAfter(null, 5))).isEqualTo(2);
+        assertThat(statements(() -> userService.getUsersAfter(null, 500))).isEqualTo(2);
+    }
+
+    @Test
+    void streamingUsersRunsOneStatementForAnyNumberOfUsers() {
+        int before = statements(() -> userService.streamUsers(user -> user.getRoles().size()));
+        addUsers(30);
+        int after = statements(() -> userService.streamUsers(user -> user.getRoles().size()));
+
+        assertThat(before).isEqualTo(1);
+        assertThat(after).isEqualTo(1);
+    }
+
+    @Test
+    void loadingCredentialsRunsOneStatementForAnyNumberOfRoles() {
+        String username = addUsers(1).get(0);
+        userDetailsCache.evict(username);
+
+        assertThat(statements(() -> userServiceImpl.loadUserByUsername(username))).isEqualTo(1);
+        assertThat(statements(() -> userService.getRoleNames(username))).isZero();
+        /* The refresh flow reads the role names from the entry the login has just cached. */
+    }
+
+    private static int statements(Runnable call) {
+        SqlStatements.clear();
+        call.run();
+        return SqlStatements.onThisThread().size();
+    }
+
+    private List<String> addUsers(int count) {
+        List<String> usernames = new ArrayList<>();
+        Map<String, Set<String>> grants = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            String username = "user-" + UUID.randomUUID();
+            userService.saveUser(new User(null, username, username, "1234", new HashSet<>(), null));
+            grants.put(username, Set.of("ROLE_USER", "ROLE_MANAGER", "ROLE_ADMIN"));
+            usernames.add(username);
+        }
+        userService.addRolesToUsers(grants);
+        return usernames;
+    }
+}